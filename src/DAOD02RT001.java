@@ -1,10 +1,19 @@
 import daoPackage.DAOGenerator;
+import daoPackage.Param;
+import daoPackage.Query;
+import exceptions.DAOException;
 
 import java.sql.Connection;
+import java.util.List;
 
 public class DAOD02RT001 extends DAOGenerator {
 
     public DAOD02RT001(Connection connection) {
         super(connection);
     }
+
+    @Query("SELECT D02001_2222 FROM D02RT001 WHERE D02001_2222 LIKE :prefix ORDER BY D02001_2222")
+    public List<VOD02RT001> findByPrefix(@Param("prefix") String prefix) throws DAOException {
+        return invokeQuery("findByPrefix", prefix);
+    }
 }
@@ -0,0 +1,563 @@
+package connectionPackage;
+
+import javax.sql.DataSource;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTimeoutException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Lightweight pool of physical connections with min/max size, borrow timeout, validation on borrow,
+ * idle eviction and leak detection. The connection returned by getConnection is a proxy, close() gives
+ * the physical connection back to the pool after the rollback of the uncommitted work
+ */
+public class ConnectionPool implements DataSource, AutoCloseable {
+
+    public static final String CONFIG_FILE = "connectionDB.config";
+
+    /**
+     * a connection used again within this interval is not validated, it was alive a moment ago
+     */
+    private static final long ALIVE_BYPASS_MILLIS = 500;
+
+    private static final Logger logger = Logger.getLogger(ConnectionPool.class.getName());
+
+    /**
+     * called with the physical connection before the pool closes it, shared by all the pools
+     */
+    private static final List<Consumer<Connection>> closeListeners = new CopyOnWriteArrayList<>();
+
+    private final String name;
+
+    private final String url;
+
+    private final String user;
+
+    private final String password;
+
+    private final int minSize;
+
+    private final int maxSize;
+
+    private final long borrowTimeoutMillis;
+
+    private final int validationTimeoutSeconds;
+
+    private final long idleTimeoutMillis;
+
+    private final long leakDetectionThresholdMillis;
+
+    private final LinkedBlockingDeque<PooledEntry> idle = new LinkedBlockingDeque<>();
+
+    private final Set<PooledEntry> borrowed = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger totalConnections = new AtomicInteger();
+
+    private final Semaphore permits;
+
+    private final ScheduledExecutorService housekeeper;
+
+    private volatile boolean closed;
+
+    public ConnectionPool(String name, String url, String user, String password, int minSize, int maxSize,
+                          long borrowTimeoutMillis, int validationTimeoutSeconds, long idleTimeoutMillis,
+                          long leakDetectionThresholdMillis) {
+
+        if (maxSize < 1 || minSize < 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("wrong pool size for " + name + ": min " + minSize + " max " + maxSize);
+        }
+
+        this.name = name;
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.leakDetectionThresholdMillis = leakDetectionThresholdMillis;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "ConnectionPool-" + name + "-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long period = Math.max(1000, Math.min(30000, idleTimeoutMillis / 2));
+        housekeeper.scheduleWithFixedDelay(this::houseKeeping, 0, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * This method build the pool of the datasource from the properties of connectionDB.config.
+     * The keys of the datasource have the index as suffix (jdbcUrl1, jdbcLogin1...), the keys of the pool
+     * can be set for all the datasources (poolMaxSize) or only for one (poolMaxSize1)
+     *
+     * @param properties configuration
+     * @param index      index of the datasource in the configuration
+     * @return the pool of the datasource
+     */
+    public static ConnectionPool fromProperties(Properties properties, String index) {
+
+        String driver = properties.getProperty("jdbcDriver" + index);
+        String url = properties.getProperty("jdbcUrl" + index);
+        String user = properties.getProperty("jdbcLogin" + index);
+        String pass = properties.getProperty("jdbcPassword" + index);
+
+        if (url == null || url.trim().isEmpty()) {
+            throw new IllegalArgumentException("datasource " + index + " isn't configured in " + CONFIG_FILE);
+        }
+
+        try {
+            if (driver != null && !driver.trim().isEmpty()) {
+                Class.forName(driver.trim());
+            }
+        } catch (ClassNotFoundException e) {
+            throw new RuntimeException("driver not found for datasource " + index + ": " + driver);
+        }
+
+        return new ConnectionPool(index, url.trim(), user, pass,
+                getIntProperty(properties, "poolMinSize", index, 1),
+                getIntProperty(properties, "poolMaxSize", index, 10),
+                getIntProperty(properties, "poolBorrowTimeout", index, 30000),
+                getIntProperty(properties, "poolValidationTimeout", index, 5),
+                getIntProperty(properties, "poolIdleTimeout", index, 600000),
+                getIntProperty(properties, "poolLeakDetectionThreshold", index, 0));
+    }
+
+    /**
+     * This method get the pool of the default datasource (defaultDataSource in connectionDB.config),
+     * it is shared by Main.doConnection and by the DataSourceRegistry
+     *
+     * @return the default pool
+     */
+    public static ConnectionPool getInstance() {
+
+        return DataSourceRegistry.getInstance().getDefaultDataSource();
+    }
+
+    /**
+     * This method read connectionDB.config from the classpath
+     *
+     * @return the configuration
+     */
+    public static Properties loadConfiguration() {
+
+        Properties properties = new Properties();
+
+        try (InputStream input = ConnectionPool.class.getClassLoader().getResourceAsStream(CONFIG_FILE)) {
+            if (input == null) {
+                throw new RuntimeException(CONFIG_FILE + " not found in classpath");
+            }
+            properties.load(input);
+
+        } catch (java.io.IOException e) {
+            throw new RuntimeException("error reading " + CONFIG_FILE + " " + e.getMessage());
+        }
+
+        return properties;
+    }
+
+    /**
+     * This method register a listener called with the physical connection before any pool closes it,
+     * it is used to release the resources kept for the connection (e.g. the cached statements)
+     *
+     * @param listener listener of the closed connections
+     */
+    public static void addCloseListener(Consumer<Connection> listener) {
+
+        closeListeners.add(listener);
+    }
+
+    private static int getIntProperty(Properties properties, String key, String index, int defaultValue) {
+
+        String value = properties.getProperty(key + index);
+        if (value == null || value.trim().isEmpty()) {
+            value = properties.getProperty(key);
+        }
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+
+        return Integer.parseInt(value.trim());
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+
+        if (closed) {
+            throw new SQLException("connection pool " + name + " is closed");
+        }
+
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLTimeoutException("timeout of " + borrowTimeoutMillis + " ms borrowing a connection from pool "
+                        + name + " (max size " + maxSize + ", borrowed " + borrowed.size() + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("interrupted borrowing a connection from pool " + name);
+        }
+
+        PooledEntry entry = null;
+        try {
+            while (entry == null) {
+                entry = idle.pollFirst();
+                if (entry == null) {
+                    if (reserveSlot(maxSize)) {
+                        entry = openConnection();
+                    } else {
+                        //all the slots are taken, the housekeeping is opening the free one
+                        entry = idle.pollFirst(ALIVE_BYPASS_MILLIS, TimeUnit.MILLISECONDS);
+                    }
+                }
+                if (entry != null && !isValid(entry)) {
+                    destroy(entry);
+                    entry = null;
+                }
+            }
+        } catch (InterruptedException e) {
+            permits.release();
+            Thread.currentThread().interrupt();
+            throw new SQLException("interrupted borrowing a connection from pool " + name);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+
+        entry.borrowedAt = System.currentTimeMillis();
+        entry.borrowStack = leakDetectionThresholdMillis > 0 ? new Throwable("connection borrowed here") : null;
+        entry.leakReported = false;
+        borrowed.add(entry);
+
+        return (Connection) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(entry));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("the pool uses the credentials of " + CONFIG_FILE);
+    }
+
+    /**
+     * This method reserve a slot in totalConnections before opening a connection, so that the pool never
+     * opens more than the limit also when the housekeeping and the borrowers open at the same time
+     *
+     * @param limit max number of connections
+     * @return true if the slot is reserved
+     */
+    private boolean reserveSlot(int limit) {
+
+        while (true) {
+            int total = totalConnections.get();
+            if (total >= limit) {
+                return false;
+            }
+            if (totalConnections.compareAndSet(total, total + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * This method open a physical connection in a slot reserved by reserveSlot, the slot is given back if the open fails
+     *
+     * @return the new entry
+     * @throws SQLException error opening the connection
+     */
+    private PooledEntry openConnection() throws SQLException {
+
+        Connection connection = null;
+        try {
+            connection = DriverManager.getConnection(url, user, password);
+            connection.setAutoCommit(false);
+
+            return new PooledEntry(connection, connection.isReadOnly(), connection.getTransactionIsolation());
+
+        } catch (SQLException | RuntimeException e) {
+            totalConnections.decrementAndGet();
+            if (connection != null) {
+                try {
+                    connection.close();
+                } catch (SQLException ignored) {
+                    //the open already failed
+                }
+            }
+            throw e;
+        }
+    }
+
+    private boolean isValid(PooledEntry entry) {
+
+        if (System.currentTimeMillis() - entry.lastUsed < ALIVE_BYPASS_MILLIS) {
+            return true;
+        }
+
+        try {
+            return entry.connection.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void release(PooledEntry entry) {
+
+        borrowed.remove(entry);
+
+        try {
+            if (closed) {
+                destroy(entry);
+                return;
+            }
+
+            try {
+                if (!entry.connection.getAutoCommit()) {
+                    entry.connection.rollback();
+                } else {
+                    entry.connection.setAutoCommit(false);
+                }
+                //the next borrower gets the defaults of the pool, not the settings of the previous one
+                if (entry.connection.isReadOnly() != entry.defaultReadOnly) {
+                    entry.connection.setReadOnly(entry.defaultReadOnly);
+                }
+                if (entry.connection.getTransactionIsolation() != entry.defaultTransactionIsolation) {
+                    entry.connection.setTransactionIsolation(entry.defaultTransactionIsolation);
+                }
+                entry.lastUsed = System.currentTimeMillis();
+                idle.offerFirst(entry);
+
+            } catch (SQLException e) {
+                logger.info("ERROR RESETTING CONNECTION OF POOL " + name + " " + e.getMessage());
+                destroy(entry);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void destroy(PooledEntry entry) {
+
+        totalConnections.decrementAndGet();
+        for (Consumer<Connection> listener : closeListeners) {
+            try {
+                listener.accept(entry.connection);
+            } catch (RuntimeException e) {
+                logger.info("ERROR IN CLOSE LISTENER OF POOL " + name + " " + e.getMessage());
+            }
+        }
+        try {
+            entry.connection.close();
+        } catch (SQLException e) {
+            logger.info("ERROR CLOSING CONNECTION OF POOL " + name + " " + e.getMessage());
+        }
+    }
+
+    private void houseKeeping() {
+
+        try {
+            long now = System.currentTimeMillis();
+
+            Iterator<PooledEntry> iterator = idle.descendingIterator();
+            while (iterator.hasNext() && totalConnections.get() > minSize) {
+                PooledEntry entry = iterator.next();
+                if (now - entry.lastUsed > idleTimeoutMillis && idle.remove(entry)) {
+                    destroy(entry);
+                }
+            }
+
+            if (leakDetectionThresholdMillis > 0) {
+                for (PooledEntry entry : borrowed) {
+                    if (!entry.leakReported && now - entry.borrowedAt > leakDetectionThresholdMillis) {
+                        entry.leakReported = true;
+                        logger.log(Level.WARNING, "POSSIBLE CONNECTION LEAK IN POOL " + name + ": connection borrowed "
+                                + (now - entry.borrowedAt) + " ms ago and not closed", entry.borrowStack);
+                    }
+                }
+            }
+
+            while (!closed && reserveSlot(minSize)) {
+                idle.offerLast(openConnection());
+            }
+
+        } catch (Exception e) {
+            logger.info("ERROR IN HOUSEKEEPING OF POOL " + name + " " + e.getMessage());
+        }
+    }
+
+    /**
+     * This method close the idle connections and stop the pool, the borrowed connections are closed when they are given back
+     */
+    @Override
+    public void close() {
+
+        closed = true;
+        housekeeper.shutdownNow();
+
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            destroy(entry);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getTotalConnections() {
+        return totalConnections.get();
+    }
+
+    public int getIdleConnections() {
+        return idle.size();
+    }
+
+    public int getBorrowedConnections() {
+        return borrowed.size();
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return null;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return 0;
+    }
+
+    @Override
+    public Logger getParentLogger() {
+        return logger;
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("the pool isn't a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    private static final class PooledEntry {
+
+        private final Connection connection;
+
+        private final boolean defaultReadOnly;
+
+        private final int defaultTransactionIsolation;
+
+        private volatile long lastUsed = System.currentTimeMillis();
+
+        private volatile long borrowedAt;
+
+        private volatile Throwable borrowStack;
+
+        private volatile boolean leakReported;
+
+        private PooledEntry(Connection connection, boolean defaultReadOnly, int defaultTransactionIsolation) {
+            this.connection = connection;
+            this.defaultReadOnly = defaultReadOnly;
+            this.defaultTransactionIsolation = defaultTransactionIsolation;
+        }
+    }
+
+    /**
+     * Handler of the borrowed connection: close() gives the connection back to the pool and
+     * unwrap(Connection.class) returns the physical connection (used as key of the statement cache)
+     */
+    private final class ConnectionHandler implements InvocationHandler {
+
+        private final PooledEntry entry;
+
+        private boolean released;
+
+        private ConnectionHandler(PooledEntry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+            switch (method.getName()) {
+                case "close":
+                    synchronized (this) {
+                        if (!released) {
+                            released = true;
+                            release(entry);
+                        }
+                    }
+                    return null;
+                case "isClosed":
+                    return released || entry.connection.isClosed();
+                case "isWrapperFor":
+                    if (args[0] == Connection.class) {
+                        return true;
+                    }
+                    break;
+                case "unwrap":
+                    if (args[0] == Connection.class) {
+                        return entry.connection;
+                    }
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + name + "] " + entry.connection;
+                default:
+                    break;
+            }
+
+            if (released) {
+                throw new SQLException("connection already given back to pool " + name);
+            }
+
+            try {
+                return method.invoke(entry.connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package connectionPackage;
+
+import voPackage.Entity;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Registry of all the datasources of connectionDB.config (jdbcUrl1, jdbcUrl2, jdbcUrl3...).
+ * The pool of a datasource is opened only when it is used the first time.
+ * The entity is routed on the datasource of @Entity(dataSource) or on defaultDataSource,
+ * the reads go to the replica of the datasource when jdbcReplicaN is configured
+ */
+public class DataSourceRegistry implements AutoCloseable {
+
+    private static final Pattern URL_KEY = Pattern.compile("jdbcUrl(\\w+)");
+
+    private static volatile DataSourceRegistry instance;
+
+    private final Properties properties;
+
+    private final String defaultDataSource;
+
+    private final Map<String, ConnectionPool> pools = new ConcurrentHashMap<>();
+
+    private volatile RoutingStrategy routingStrategy;
+
+    public DataSourceRegistry(Properties properties) {
+
+        this.properties = properties;
+        this.defaultDataSource = properties.getProperty("defaultDataSource", "1").trim();
+        this.routingStrategy = this::defaultRoute;
+    }
+
+    /**
+     * This method get the registry built from connectionDB.config
+     *
+     * @return the shared registry
+     */
+    public static DataSourceRegistry getInstance() {
+
+        DataSourceRegistry registry = instance;
+        if (registry == null) {
+            synchronized (DataSourceRegistry.class) {
+                registry = instance;
+                if (registry == null) {
+                    registry = new DataSourceRegistry(ConnectionPool.loadConfiguration());
+                    instance = registry;
+                }
+            }
+        }
+        return registry;
+    }
+
+    /**
+     * This method replace the routing of the entities, es: sharding by entity or by tenant
+     *
+     * @param routingStrategy new strategy
+     */
+    public void setRoutingStrategy(RoutingStrategy routingStrategy) {
+        this.routingStrategy = routingStrategy;
+    }
+
+    public String getDefaultDataSourceName() {
+        return defaultDataSource;
+    }
+
+    public Properties getProperties() {
+        return properties;
+    }
+
+    /**
+     * This method get the names of the datasources with a jdbcUrl in the configuration
+     *
+     * @return names of the configured datasources
+     */
+    public List<String> getDataSourceNames() {
+
+        List<String> names = new ArrayList<>();
+
+        for (String key : properties.stringPropertyNames()) {
+            Matcher matcher = URL_KEY.matcher(key);
+            if (matcher.matches() && !properties.getProperty(key).trim().isEmpty()) {
+                names.add(matcher.group(1));
+            }
+        }
+        Collections.sort(names);
+
+        return names;
+    }
+
+    /**
+     * This method get the pool of the datasource, the pool is opened the first time
+     *
+     * @param name name (index in connectionDB.config) of the datasource
+     * @return pool of the datasource
+     */
+    public ConnectionPool getDataSource(String name) {
+
+        return pools.computeIfAbsent(name, n -> ConnectionPool.fromProperties(properties, n));
+    }
+
+    public ConnectionPool getDefaultDataSource() {
+        return getDataSource(defaultDataSource);
+    }
+
+    /**
+     * This method get the name of the datasource of the entity
+     *
+     * @param entityClass value object class
+     * @param readOnly    true for the reads
+     * @return name of the datasource
+     */
+    public String route(Class<?> entityClass, boolean readOnly) {
+
+        return routingStrategy.route(entityClass, readOnly);
+    }
+
+    /**
+     * This method borrow a connection for the entity from the datasource chosen by the routing
+     *
+     * @param entityClass value object class
+     * @param readOnly    true for the reads, that can go to a replica
+     * @return pooled connection, close() gives it back
+     */
+    public Connection getConnection(Class<?> entityClass, boolean readOnly) throws SQLException {
+
+        return getDataSource(route(entityClass, readOnly)).getConnection();
+    }
+
+    private String defaultRoute(Class<?> entityClass, boolean readOnly) {
+
+        String name = defaultDataSource;
+
+        if (entityClass != null && entityClass.isAnnotationPresent(Entity.class)) {
+            String dataSource = entityClass.getAnnotation(Entity.class).dataSource();
+            if (dataSource != null && !dataSource.isEmpty()) {
+                name = dataSource;
+            }
+        }
+
+        if (readOnly) {
+            String replica = properties.getProperty("jdbcReplica" + name);
+            if (replica != null && !replica.trim().isEmpty()) {
+                name = replica.trim();
+            }
+        }
+
+        return name;
+    }
+
+    /**
+     * This method close all the opened pools
+     */
+    @Override
+    public void close() {
+
+        for (ConnectionPool pool : pools.values()) {
+            pool.close();
+        }
+        pools.clear();
+    }
+}
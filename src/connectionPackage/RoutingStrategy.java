@@ -0,0 +1,16 @@
+package connectionPackage;
+
+/**
+ * Strategy used by the DataSourceRegistry to choose the datasource of an entity
+ */
+public interface RoutingStrategy {
+
+    /**
+     * This method choose the datasource of the operation
+     *
+     * @param entityClass value object class
+     * @param readOnly    true for the reads, that can go to a replica
+     * @return name (index in connectionDB.config) of the datasource
+     */
+    String route(Class<?> entityClass, boolean readOnly);
+}
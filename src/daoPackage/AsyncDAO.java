@@ -0,0 +1,182 @@
+package daoPackage;
+
+import exceptions.DAOException;
+import voPackage.VOGenerator;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Non blocking facade of DAOGenerator: every CRUD runs on the executor and returns a CompletableFuture.
+ * The default executor starts a virtual thread per task when the jvm supports them (java 21+), otherwise
+ * a fixed pool of platform threads. The operations running at the same time are never more than the limit,
+ * by default the max size of the connection pool, so the tasks wait on the limit and not on the pool.
+ * A DAOException is the cause of the CompletionException of the future
+ */
+public class AsyncDAO implements AutoCloseable {
+
+    protected static final Logger logger = Logger.getLogger(AsyncDAO.class.getName());
+
+    private final DAOGenerator dao;
+
+    private final ExecutorService executor;
+
+    private final boolean ownExecutor;
+
+    private final Semaphore permits;
+
+    /**
+     * The limit is the max size of the default connection pool, or 1 if the dao works on a single connection
+     *
+     * @param dao dao that does the operations
+     */
+    public AsyncDAO(DAOGenerator dao) {
+        this(dao, getDefaultConcurrency(dao));
+    }
+
+    /**
+     * @param dao            dao that does the operations
+     * @param maxConcurrency max number of operations running at the same time
+     */
+    public AsyncDAO(DAOGenerator dao, int maxConcurrency) {
+        this(dao, maxConcurrency, newDefaultExecutor(maxConcurrency), true);
+    }
+
+    /**
+     * The executor is managed by the caller, close doesn't shut it down
+     *
+     * @param dao            dao that does the operations
+     * @param maxConcurrency max number of operations running at the same time
+     * @param executor       executor of the operations
+     */
+    public AsyncDAO(DAOGenerator dao, int maxConcurrency, ExecutorService executor) {
+        this(dao, maxConcurrency, executor, false);
+    }
+
+    private AsyncDAO(DAOGenerator dao, int maxConcurrency, ExecutorService executor, boolean ownExecutor) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be greater than 0");
+        }
+        if (dao.connection != null && maxConcurrency > 1) {
+            throw new IllegalArgumentException("a dao on a single connection can't run more than one operation at the same time");
+        }
+        this.dao = dao;
+        this.executor = executor;
+        this.ownExecutor = ownExecutor;
+        this.permits = new Semaphore(maxConcurrency, true);
+    }
+
+    public <T extends VOGenerator> CompletableFuture<T> readByPrimaryKey(T voGenerator) {
+
+        return submit(() -> dao.readByPrimaryKey(voGenerator));
+    }
+
+    public CompletableFuture<Integer> create(VOGenerator voGenerator) {
+
+        return submit(() -> dao.create(voGenerator));
+    }
+
+    public CompletableFuture<Integer> update(VOGenerator voGenerator) {
+
+        return submit(() -> dao.update(voGenerator));
+    }
+
+    public CompletableFuture<Integer> delete(VOGenerator voGenerator) {
+
+        return submit(() -> dao.delete(voGenerator));
+    }
+
+    /**
+     * This method run a custom operation of the dao with the same limit of the CRUD
+     *
+     * @param operation operation on the dao
+     * @return the result of the operation
+     */
+    public <R> CompletableFuture<R> submit(DAOOperation<R> operation) {
+
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(new DAOException("EXCEPTION IS: INTERRUPTED WAITING THE DAO", e));
+            }
+
+            try {
+                return operation.execute();
+            } catch (DAOException e) {
+                throw new CompletionException(e);
+            } finally {
+                permits.release();
+            }
+        }, executor);
+    }
+
+    public DAOGenerator getDao() {
+        return dao;
+    }
+
+    @Override
+    public void close() {
+
+        if (ownExecutor) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Operation on the dao that can throw a DAOException
+     */
+    @FunctionalInterface
+    public interface DAOOperation<R> {
+
+        R execute() throws DAOException;
+    }
+
+    private static int getDefaultConcurrency(DAOGenerator dao) {
+
+        if (dao.connection != null) {
+            return 1;
+        }
+
+        return dao.dataSourceRegistry.getDefaultDataSource().getMaxSize();
+    }
+
+    /**
+     * This method create a virtual thread per task executor if the jvm has it, the method is called by
+     * reflection to compile also on java 11
+     *
+     * @param maxConcurrency size of the platform thread pool if the virtual threads are not available
+     * @return the executor
+     */
+    private static ExecutorService newDefaultExecutor(int maxConcurrency) {
+
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+
+        } catch (ReflectiveOperationException e) {
+            logger.info("info VIRTUAL THREADS NOT AVAILABLE, USING " + maxConcurrency + " PLATFORM THREADS");
+            return Executors.newFixedThreadPool(maxConcurrency, new AsyncThreadFactory());
+        }
+    }
+
+    private static final class AsyncThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "async-dao-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
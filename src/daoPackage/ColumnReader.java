@@ -0,0 +1,13 @@
+package daoPackage;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Reader of a column of the ResultSet with the getter of the java type of the vo field
+ */
+@FunctionalInterface
+public interface ColumnReader {
+
+    Object read(ResultSet rs, int index) throws SQLException;
+}
@@ -1,429 +1,1606 @@
 package daoPackage;
 
+import connectionPackage.DataSourceRegistry;
+import exceptions.BatchDAOException;
 import exceptions.DAOException;
-import voPackage.Id;
+import voPackage.DirtyTracker;
+import voPackage.FieldMetadata;
 import voPackage.VOGenerator;
 
-import java.lang.reflect.Field;
+import java.io.FilterInputStream;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.BatchUpdateException;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class DAOGenerator {
 
     protected Connection connection;
 
+    protected final DataSourceRegistry dataSourceRegistry;
+
     protected static final Logger logger = Logger.getLogger(DAOGenerator.class.getName());
 
+    //one cache per vo class shared by all the dao, so a write of any dao removes the row read by the others
+    private static final Map<Class<?>, Optional<EntityCache>> caches = new ConcurrentHashMap<>();
+
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    public static final int DEFAULT_FETCH_SIZE = 500;
+
+    /**
+     * max number of keys in the IN list of readAllByPrimaryKeys (oracle accepts at most 1000 expressions)
+     */
+    public static final int DEFAULT_IN_CHUNK_SIZE = 1000;
+
+    /**
+     * max number of bind parameters of a statement (oracle and mysql)
+     */
+    private static final int MAX_BIND_PARAMETERS = 65535;
+
+    private int statementCacheSize = StatementCache.DEFAULT_MAX_SIZE;
+
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+
+    private int inChunkSize = DEFAULT_IN_CHUNK_SIZE;
+
+    /**
+     * The dao works on the connection, the transaction is managed by the caller
+     *
+     * @param connection connection to database
+     */
     public DAOGenerator(Connection connection) {
         this.connection = connection;
+        this.dataSourceRegistry = null;
+        //parse the @Query methods of the subclass, a wrong query fails here and not at the first call
+        QueryMethod.forClass(getClass());
+    }
+
+    /**
+     * The dao borrows a connection for every operation from the datasource of the entity:
+     * the reads go to the replica if configured, the writes go to the primary and are committed
+     *
+     * @param dataSourceRegistry registry of the datasources
+     */
+    public DAOGenerator(DataSourceRegistry dataSourceRegistry) {
+        this.connection = null;
+        this.dataSourceRegistry = dataSourceRegistry;
+        QueryMethod.forClass(getClass());
+    }
+
+    /**
+     * The dao routes the operations on the datasources of connectionDB.config
+     */
+    public DAOGenerator() {
+        this(DataSourceRegistry.getInstance());
+    }
+
+    /**
+     * This method set the max number of PreparedStatement kept open for the connection.
+     * The cache of a connection is shared by all the DAO, so it keeps the largest size requested
+     *
+     * @param statementCacheSize max number of cached statements
+     */
+    public void setStatementCacheSize(int statementCacheSize) {
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    /**
+     * This method set the number of rows sent to the database with a single executeBatch
+     *
+     * @param batchSize rows for every batch
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batch size must be greater than 0: " + batchSize);
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * This method set the number of rows read with a single round trip by stream and forEach
+     *
+     * @param fetchSize rows for every fetch
+     */
+    public void setFetchSize(int fetchSize) {
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("fetch size must be greater than 0: " + fetchSize);
+        }
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * This method set the max number of keys read with a single statement by readAllByPrimaryKeys
+     *
+     * @param inChunkSize keys for every IN list
+     */
+    public void setInChunkSize(int inChunkSize) {
+        if (inChunkSize < 1) {
+            throw new IllegalArgumentException("in chunk size must be greater than 0: " + inChunkSize);
+        }
+        this.inChunkSize = inChunkSize;
     }
 
     private String getTableName(VOGenerator voGenerator){
-        return voGenerator.getClass().getSimpleName().substring(2);
+        return EntitySql.of(voGenerator.getClass()).getMetadata().getTableName();
     }
 
-    private Map<String,Object> getAllFields(VOGenerator voGenerator){
+    /**
+     * This method get the connection of the operation: the connection of the dao or,
+     * in routing mode, a connection borrowed from the datasource of the entity
+     *
+     * @param entityClass value object class
+     * @param readOnly    true for the reads
+     * @return connection to use
+     */
+    protected Connection getConnection(Class<?> entityClass, boolean readOnly) throws SQLException {
+
+        if (dataSourceRegistry == null) {
+            return connection;
+        }
+        return dataSourceRegistry.getConnection(entityClass, readOnly);
+    }
 
-        Map<String,Object> allFileds = new LinkedHashMap<>();
+    /**
+     * This method commit the work of the operation if the connection was borrowed by the dao
+     *
+     * @param con connection of the operation
+     */
+    protected void commit(Connection con) throws SQLException {
 
-        try {
-            String voName = "VO" + getTableName(voGenerator);
+        if (con != null && con != connection) {
+            con.commit();
+        }
+    }
 
-            if(voName.equals(voGenerator.getClass().getSimpleName())){
-                Field[] fields = voGenerator.getClass().getDeclaredFields();
+    /**
+     * This method give back the borrowed connection, the uncommitted work is rolled back by the pool
+     *
+     * @param con connection of the operation
+     */
+    protected void releaseConnection(Connection con) {
 
-                for(Field field : fields){
-                    String fieldName = field.getName().toUpperCase();
-                    field.setAccessible(true);
-                    Object fieldValue = field.get(voGenerator);
+        try {
+            if (con != null && con != connection) {
+                con.close();
+            }
+        } catch (SQLException e) {
+            logger.info("ERROR CLOSING CONNECTION " + e.getMessage());
+        }
+    }
 
-                    allFileds.put(fieldName,fieldValue);
-                }
+    protected PreparedStatement prepare(Connection con, String sql) throws SQLException {
+        return StatementCache.forConnection(con, statementCacheSize).prepare(sql);
+    }
+
+    private void evict(Connection con, String sql) {
+        try {
+            if (con != null) {
+                StatementCache.forConnection(con, statementCacheSize).evict(sql);
             }
+        } catch (SQLException e) {
+            logger.info("ERROR EVICTING STATEMENT " + e.getMessage());
+        }
+    }
+
+    private int bindColumns(PreparedStatement ps, int index, List<FieldMetadata> fields, VOGenerator voGenerator) throws SQLException {
+
+        for (FieldMetadata field : fields) {
+            JdbcTypes.bind(ps, index++, field.get(voGenerator), field.getType());
+        }
+
+        return index;
+    }
+
+    private interface StatementBinder {
+        void bind(PreparedStatement ps, EntitySql entitySql, VOGenerator voGenerator) throws SQLException;
+    }
+
+    private interface RowFunction<T> {
+        T apply(ResultSet rs) throws SQLException;
+    }
+
+    private interface ColumnOpener<S> {
+        S open(ResultSet rs, Runnable release) throws SQLException;
+    }
 
-        }catch (Exception e){
-            throw new RuntimeException("ERROR GETTING ALL FIELDS " + e.getMessage());
+    private void bindInsert(PreparedStatement ps, EntitySql entitySql, VOGenerator voGenerator) throws SQLException {
+        if (entitySql.getMapper() != null) {
+            entitySql.getMapper().bindInsert(ps, voGenerator);
+            return;
         }
+        bindColumns(ps, 1, entitySql.getMetadata().getColumns(), voGenerator);
+    }
 
-        return allFileds;
+    private void bindUpdate(PreparedStatement ps, EntitySql entitySql, VOGenerator voGenerator) throws SQLException {
+        if (entitySql.getMapper() != null) {
+            entitySql.getMapper().bindUpdate(ps, voGenerator);
+            return;
+        }
+        int index = bindColumns(ps, 1, entitySql.getMetadata().getEagerColumns(), voGenerator);
+        bindColumns(ps, index, entitySql.getMetadata().getPrimaryKeys(), voGenerator);
     }
 
-    private String getInsertStatement(VOGenerator voGenerator){
+    private void bindPrimaryKey(PreparedStatement ps, EntitySql entitySql, VOGenerator voGenerator) throws SQLException {
+        if (entitySql.getMapper() != null) {
+            entitySql.getMapper().bindPrimaryKey(ps, voGenerator);
+            return;
+        }
+        bindColumns(ps, 1, entitySql.getMetadata().getPrimaryKeys(), voGenerator);
+    }
 
-        Map<String,Object> mappaVO = getAllFields(voGenerator);
+    /**
+     * This method get the readByPrimaryKey cache of the vo class, with the hit and miss statistics.
+     * The cache is shared by all the dao of the application and it is filled only by the reads on the primary datasource,
+     * the rows read from a replica can be behind the primary.
+     * On a connection managed by the caller a row read inside a transaction rolled back stays in the cache,
+     * in that case the cache must be cleared
+     *
+     * @param clazz value object class
+     * @return the cache, null if the class doesn't enable it with @Entity(cacheSize)
+     */
+    public EntityCache getCache(Class<?> clazz) {
+
+        return caches.computeIfAbsent(clazz, k -> Optional.ofNullable(EntityCache.of(k))).orElse(null);
+    }
 
-        StringBuilder builder = new StringBuilder();
+    /**
+     * This method get the cache to fill with the rows read for the vo class
+     *
+     * @param clazz value object class
+     * @return the cache, null if the class doesn't enable it or the reads are routed on a replica
+     */
+    private EntityCache getCacheToFill(Class<?> clazz) {
 
-        builder.append("INSERT INTO ").append(getTableName(voGenerator)).append(" (");
+        if (dataSourceRegistry != null && !dataSourceRegistry.route(clazz, true).equals(dataSourceRegistry.route(clazz, false))) {
+            return null;
+        }
+        return getCache(clazz);
+    }
 
-        Iterator<Map.Entry<String, Object>> iterator = mappaVO.entrySet().iterator();
-        List<Map.Entry<String, Object>> list = new ArrayList<>();
+    /**
+     * This method remove all the cached rows of the vo class, to use after changes not done by this dao
+     *
+     * @param clazz value object class
+     */
+    public void invalidateCache(Class<?> clazz) {
 
-        while (iterator.hasNext()){
-            list.add(iterator.next());
+        EntityCache cache = getCache(clazz);
+        if (cache != null) {
+            cache.clear();
         }
+    }
+
+    private void invalidateCache(VOGenerator voGenerator) {
+
+        EntityCache cache = getCache(voGenerator.getClass());
+        if (cache != null) {
+            cache.invalidate(voGenerator);
+        }
+    }
+
+    private void invalidateCache(Collection<? extends VOGenerator> voGenerators) {
 
-        for(int i = 0; i < list.size(); i++){
-            builder.append(list.get(i).getKey());
-            if(i < list.size() - 1){
-                builder.append(",");
+        for (VOGenerator voGenerator : voGenerators) {
+            if (voGenerator != null) {
+                invalidateCache(voGenerator);
             }
         }
+    }
 
-        builder.append(") ")
-                .append("VALUES (");
+    public <T extends VOGenerator> T readByPrimaryKey(T voGenerator)throws DAOException {
 
-        for(int i = 0; i < list.size(); i++){
-            Object value = list.get(i).getValue();
+        EntityCache cache = getCache(voGenerator.getClass());
+        if (cache != null && cache.read(voGenerator)) {
+            DirtyTracker.snapshot(voGenerator);
+            return voGenerator;
+        }
+        EntityCache cacheToFill = getCacheToFill(voGenerator.getClass());
+        long cacheVersion = cacheToFill != null ? cacheToFill.getVersion() : 0;
 
-            if(value instanceof String){
-                builder.append("'").append(value).append("'");
+        EntitySql entitySql = EntitySql.of(voGenerator.getClass());
+        String sql = entitySql.getReadByPrimaryKeyStatement();
 
-            }else if(value == null){
-                builder.append("NULL");
-            }else {
-                builder.append(value);
+        Connection con = null;
+        ResultSet rs = null;
+        try{
+            con = getConnection(voGenerator.getClass(), true);
+            PreparedStatement ps = prepare(con, sql);
+            bindPrimaryKey(ps, entitySql, voGenerator);
+
+            logger.info("ValueObject: " + voGenerator.toString());
+            logger.info("Doing Read By Primary Key on table: " + getTableName(voGenerator));
+            logger.info("READ BY PRIMARY KEY STATEMENT: " + sql);
+            rs = ps.executeQuery();
+
+            if(rs != null && rs.next()){
+                RowMapper.of(voGenerator.getClass()).map(rs, voGenerator);
+                DirtyTracker.snapshot(voGenerator);
+                if (cacheToFill != null) {
+                    cacheToFill.put(voGenerator, cacheVersion);
+                }
             }
 
-            if(i < list.size() - 1){
-                builder.append(",");
+        }catch (ClassCastException | IllegalArgumentException illEx){
+            throw new RuntimeException("GENERAL TECHNICAL ERROR " + illEx.getMessage());
+
+        }catch (SQLException e){
+            evict(con, sql);
+            logger.info("ERROR IN TABLE " + getTableName(voGenerator));
+            throw new DAOException("EXCEPTION IS: " + e.getMessage(), e);
+
+        }finally {
+            try {
+                if (rs != null) {
+                    rs.close();
+                }
+            } catch (SQLException e) {
+                logger.info("ERROR CLOSING RESOURCES " + e.getMessage());
             }
+            releaseConnection(con);
         }
-        builder.append(")");
 
-        return builder.toString();
+        return voGenerator;
     }
 
-    private Map<String,Object> getPKFields(VOGenerator voGenerator){
+    /**
+     * This method read only some columns of the row in the vo, the other fields are not changed.
+     * The cache is not used; a following update writes only the columns changed after this read
+     *
+     * @param voGenerator value object with the primary key set
+     * @param fieldNames  names of the fields or of the columns to read
+     * @return the vo
+     */
+    public <T extends VOGenerator> T readByPrimaryKey(T voGenerator, String... fieldNames) throws DAOException {
+
+        EntitySql entitySql = EntitySql.of(voGenerator.getClass());
+        List<FieldMetadata> columns = ProjectionMapper.findColumns(entitySql.getMetadata(), fieldNames);
+        if (columns.isEmpty()) {
+            throw new IllegalArgumentException("no field to read of " + voGenerator.getClass().getSimpleName());
+        }
+        String sql = entitySql.getReadByPrimaryKeyStatement(columns);
 
-        Map<String,Object> pkFields = new LinkedHashMap<>();
+        Connection con = null;
+        ResultSet rs = null;
+        try{
+            con = getConnection(voGenerator.getClass(), true);
+            PreparedStatement ps = prepare(con, sql);
+            bindPrimaryKey(ps, entitySql, voGenerator);
 
-        String voName = "VO" + getTableName(voGenerator);
+            logger.info("ValueObject: " + voGenerator.toString());
+            logger.info("Doing Read By Primary Key of " + columns.size() + " columns on table: " + getTableName(voGenerator));
+            logger.info("READ BY PRIMARY KEY STATEMENT: " + sql);
+            rs = ps.executeQuery();
 
-        try {
-            if (voName.equals(voGenerator.getClass().getSimpleName())) {
-                Field[] fields = voGenerator.getClass().getDeclaredFields();
+            if(rs != null && rs.next()){
+                for (int i = 0; i < columns.size(); i++) {
+                    FieldMetadata column = columns.get(i);
+                    column.set(voGenerator, JdbcTypes.getReader(column.getType()).read(rs, i + 1));
+                }
+                DirtyTracker.snapshot(voGenerator, columns);
+            }
 
-                for (Field field : fields) {
-                    if (field.isAnnotationPresent(Id.class)) {
-                        String nameOfPk = field.getName();
-                        field.setAccessible(true);
-                        Object fieldValue = field.get(voGenerator);
+        }catch (SQLException e){
+            evict(con, sql);
+            logger.info("ERROR IN TABLE " + getTableName(voGenerator));
+            throw new DAOException("EXCEPTION IS: " + e.getMessage(), e);
 
-                        pkFields.put(nameOfPk,fieldValue);
-                    }
+        }finally {
+            try {
+                if (rs != null) {
+                    rs.close();
                 }
+            } catch (SQLException e) {
+                logger.info("ERROR CLOSING RESOURCES " + e.getMessage());
             }
-        }catch (Exception e){
-            throw new RuntimeException("ERROR GETTING PK FIELDS " + e.getMessage());
+            releaseConnection(con);
         }
 
-        return pkFields;
+        return voGenerator;
     }
 
-    private String getReadByPrimaryKeyStatement(VOGenerator voGenerator){
+    /**
+     * This method read the @Column(lazy = true) fields of the vo, the other fields are not changed
+     *
+     * @param voGenerator value object with the primary key set
+     * @return the vo
+     */
+    public <T extends VOGenerator> T loadLazy(T voGenerator) throws DAOException {
+
+        List<FieldMetadata> lazyColumns = EntitySql.of(voGenerator.getClass()).getMetadata().getLazyColumns();
+        if (lazyColumns.isEmpty()) {
+            return voGenerator;
+        }
 
-        Map<String,Object> pkFields = getPKFields(voGenerator);
+        String[] fieldNames = new String[lazyColumns.size()];
+        for (int i = 0; i < fieldNames.length; i++) {
+            fieldNames[i] = lazyColumns.get(i).getFieldName();
+        }
+
+        return readByPrimaryKey(voGenerator, fieldNames);
+    }
 
-        StringBuilder builder = new StringBuilder();
+    /**
+     * This method read a binary column (BLOB, RAW) of the row as a stream, without copying it in the vo.
+     * The statement and the connection are released when the stream is closed (try-with-resources)
+     *
+     * @param voGenerator value object with the primary key set
+     * @param fieldName   name of the field or of the column
+     * @return the stream of the column, null if the row doesn't exist or the column is null
+     */
+    public InputStream openBinaryStream(VOGenerator voGenerator, String fieldName) throws DAOException {
+
+        return openColumn(voGenerator, fieldName, (rs, release) -> {
+            InputStream in = rs.getBinaryStream(1);
+            return in == null ? null : new FilterInputStream(in) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        release.run();
+                    }
+                }
+            };
+        });
+    }
 
-        builder.append("SELECT * FROM ")
-                .append(getTableName(voGenerator))
-                .append(" WHERE ");
+    /**
+     * This method read a character column (CLOB, VARCHAR) of the row as a stream, without copying it in the vo.
+     * The statement and the connection are released when the reader is closed (try-with-resources)
+     *
+     * @param voGenerator value object with the primary key set
+     * @param fieldName   name of the field or of the column
+     * @return the reader of the column, null if the row doesn't exist or the column is null
+     */
+    public Reader openCharacterStream(VOGenerator voGenerator, String fieldName) throws DAOException {
+
+        return openColumn(voGenerator, fieldName, (rs, release) -> {
+            Reader reader = rs.getCharacterStream(1);
+            return reader == null ? null : new FilterReader(reader) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        release.run();
+                    }
+                }
+            };
+        });
+    }
 
-        Iterator<Map.Entry<String, Object>> iterator = pkFields.entrySet().iterator();
-        List<Map.Entry<String, Object>> list = new ArrayList<>();
+    /**
+     * This method select one column of the row on a dedicated statement and give it to the opener,
+     * the resources stay open until the opener runs the release
+     */
+    private <S> S openColumn(VOGenerator voGenerator, String fieldName, ColumnOpener<S> opener) throws DAOException {
 
-        while (iterator.hasNext()){
-            list.add(iterator.next());
-        }
+        EntitySql entitySql = EntitySql.of(voGenerator.getClass());
+        List<FieldMetadata> columns = ProjectionMapper.findColumns(entitySql.getMetadata(), fieldName);
+        String sql = entitySql.getReadByPrimaryKeyStatement(columns);
 
-        for(int i = 0; i < list.size(); i++){
-            String fieldName = list.get(i).getKey();
-            builder.append(fieldName).append(" = ");
+        Connection con = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        S opened = null;
+        try {
+            con = getConnection(voGenerator.getClass(), true);
+            ps = con.prepareStatement(sql);
+            bindColumns(ps, 1, entitySql.getMetadata().getPrimaryKeys(), voGenerator);
 
-            Object fieldValue = list.get(i).getValue();
+            logger.info("ValueObject: " + voGenerator.toString());
+            logger.info("Doing Stream of column " + columns.get(0).getColumnName() + " on table: " + getTableName(voGenerator));
+            logger.info("READ BY PRIMARY KEY STATEMENT: " + sql);
+            rs = ps.executeQuery();
 
-            if(fieldValue instanceof String){
-                builder.append("'").append(fieldValue).append("'");
+            if (rs.next()) {
+                final Connection streamConnection = con;
+                final PreparedStatement streamStatement = ps;
+                final ResultSet resultSet = rs;
+                AtomicBoolean released = new AtomicBoolean();
 
-            }else {
-                builder.append(fieldValue);
+                opened = opener.open(rs, () -> {
+                    if (released.compareAndSet(false, true)) {
+                        closeStream(resultSet, streamStatement, streamConnection);
+                    }
+                });
             }
 
-            if(i < list.size() - 1){
-                builder.append(" AND ");
+        } catch (SQLException e) {
+            logger.info("ERROR IN TABLE " + getTableName(voGenerator));
+            throw new DAOException("EXCEPTION IS: " + e.getMessage(), e);
+
+        } finally {
+            if (opened == null) {
+                closeStream(rs, ps, con);
             }
         }
 
-        return builder.toString();
+        return opened;
     }
 
-    private String getDeleteStatement(VOGenerator voGenerator){
+    /**
+     * This method read the row of the primary key as a projection: a record or an interface whose components
+     * or getters have the name of @Column fields (field name or column name). Only those columns are selected
+     *
+     * @param clazz      value object class
+     * @param projection record or interface
+     * @param key        value of the @Id, List of the @Id values for a composite primary key
+     * @return the projection, null if the row doesn't exist
+     */
+    public <P> P readByPrimaryKey(Class<? extends VOGenerator> clazz, Class<P> projection, Object key) throws DAOException {
+
+        EntitySql entitySql = EntitySql.of(clazz);
+        List<FieldMetadata> pkColumns = entitySql.getMetadata().getPrimaryKeys();
+        ProjectionMapper mapper = ProjectionMapper.of(clazz, projection);
+        String sql = entitySql.getReadByPrimaryKeyStatement(mapper.getColumns());
+
+        if (pkColumns.size() > 1 && (!(key instanceof List) || ((List<?>) key).size() != pkColumns.size())) {
+            throw new IllegalArgumentException("the key of " + clazz.getSimpleName() + " must be a List of "
+                    + pkColumns.size() + " values: " + key);
+        }
 
-        Map<String,Object> pkFields = getPKFields(voGenerator);
+        Connection con = null;
+        ResultSet rs = null;
+        try{
+            con = getConnection(clazz, true);
+            PreparedStatement ps = prepare(con, sql);
+            for (int k = 0; k < pkColumns.size(); k++) {
+                Object value = pkColumns.size() == 1 ? key : ((List<?>) key).get(k);
+                JdbcTypes.bind(ps, k + 1, value, pkColumns.get(k).getType());
+            }
 
-        StringBuilder builder = new StringBuilder();
+            logger.info("Doing Read By Primary Key of " + projection.getSimpleName() + " on table: " + entitySql.getMetadata().getTableName());
+            logger.info("READ BY PRIMARY KEY STATEMENT: " + sql);
+            rs = ps.executeQuery();
 
-        builder.append("DELETE FROM ")
-                .append(getTableName(voGenerator))
-                .append(" WHERE ");
+            if(rs.next()){
+                return projection.cast(mapper.map(rs));
+            }
 
-        Iterator<Map.Entry<String, Object>> iterator = pkFields.entrySet().iterator();
-        List<Map.Entry<String, Object>> list = new ArrayList<>();
+        }catch (SQLException e){
+            evict(con, sql);
+            logger.info("ERROR IN TABLE " + entitySql.getMetadata().getTableName());
+            throw new DAOException("EXCEPTION IS: " + e.getMessage(), e);
 
-        while (iterator.hasNext()){
-            list.add(iterator.next());
+        }finally {
+            try {
+                if (rs != null) {
+                    rs.close();
+                }
+            } catch (SQLException e) {
+                logger.info("ERROR CLOSING RESOURCES " + e.getMessage());
+            }
+            releaseConnection(con);
         }
 
-        for(int i = 0; i < list.size(); i++){
-            String fieldName = list.get(i).getKey();
-            builder.append(fieldName).append(" = ");
+        return null;
+    }
+
+    /**
+     * This method update the row of the vo. If the vo was read with readByPrimaryKey only the columns changed
+     * after the read are written, and if nothing changed the database is not called and the method returns 1;
+     * when the primary key changed the row with the key read is updated to the new key.
+     * Otherwise all the columns are written, the @Column(lazy = true) columns only when they are not null
+     *
+     * @param voGenerator value object to update
+     * @return number of rows updated
+     */
+    public int update(VOGenerator voGenerator)throws DAOException {
+
+        EntitySql entitySql = EntitySql.of(voGenerator.getClass());
+        List<FieldMetadata> dirtyColumns = DirtyTracker.getDirtyColumns(voGenerator);
+
+        if (dirtyColumns != null && dirtyColumns.isEmpty()) {
+            logger.info("NOTHING TO UPDATE IN TABLE " + getTableName(voGenerator));
+            return 1;
+        }
+
+        boolean keyChanged = false;
+        if (dirtyColumns != null) {
+            for (FieldMetadata column : dirtyColumns) {
+                keyChanged |= column.isId();
+            }
+        }
+
+        //a vo without snapshot writes all the columns, the lazy columns only when they are set
+        List<FieldMetadata> columns = dirtyColumns;
+        if (columns == null && !entitySql.getMetadata().getLazyColumns().isEmpty()) {
+            columns = getSetLazyColumns(entitySql.getMetadata().getLazyColumns(), voGenerator);
+            if (columns.isEmpty()) {
+                columns = null;
+            } else {
+                columns.addAll(0, entitySql.getMetadata().getEagerColumns());
+            }
+        }
 
-            Object fieldValue = list.get(i).getValue();
+        String sql = columns == null ? entitySql.getUpdateStatement() : entitySql.getUpdateStatement(columns);
 
-            if(fieldValue instanceof String){
-                builder.append("'").append(fieldValue).append("'");
+        int rs = 0;
 
-            }else {
-                builder.append(fieldValue);
+        Connection con = null;
+        try{
+            con = getConnection(voGenerator.getClass(), false);
+            PreparedStatement ps = prepare(con, sql);
+            if (columns == null) {
+                bindUpdate(ps, entitySql, voGenerator);
+            } else {
+                int index = bindColumns(ps, 1, columns, voGenerator);
+                for (FieldMetadata pkColumn : entitySql.getMetadata().getPrimaryKeys()) {
+                    //the row is found by the key read, the new key is in the SET
+                    Object key = keyChanged ? DirtyTracker.getLoadedValue(voGenerator, pkColumn) : pkColumn.get(voGenerator);
+                    JdbcTypes.bind(ps, index++, key, pkColumn.getType());
+                }
             }
 
-            if(i < list.size() - 1){
-                builder.append(" AND ");
+            logger.info("ValueObject: " + voGenerator.toString());
+            logger.info("Doing Update in table: " + getTableName(voGenerator));
+            logger.info("UPDATE STATEMENT: " + sql);
+            rs = ps.executeUpdate();
+            commit(con);
+            if (keyChanged) {
+                //the row of the key read is no longer in the table
+                invalidateCache(voGenerator.getClass());
+            } else {
+                invalidateCache(voGenerator);
+            }
+            if (dirtyColumns != null) {
+                DirtyTracker.snapshot(voGenerator);
             }
+
+        }catch (SQLException e){
+            evict(con, sql);
+            logger.info("ERROR IN TABLE " + getTableName(voGenerator));
+            throw new DAOException("EXCEPTION IS: " + e.getMessage(), e);
+
+        }finally {
+            releaseConnection(con);
         }
 
-        return builder.toString();
+        return rs;
     }
 
-    private String getUpdateStatement(VOGenerator voGenerator){
+    public int delete(VOGenerator voGenerator)throws DAOException {
 
-        Map<String,Object> allFields = getAllFields(voGenerator);
-        Iterator<Map.Entry<String,Object>> iteratorAllFields = allFields.entrySet().iterator();
-        List<Map.Entry<String,Object>> listAllFields = new ArrayList<>();
+        EntitySql entitySql = EntitySql.of(voGenerator.getClass());
+        String sql = entitySql.getDeleteStatement();
 
-        Map<String,Object> pkFields = getPKFields(voGenerator);
-        Iterator<Map.Entry<String,Object>> iteratorPkFileds = pkFields.entrySet().iterator();
-        List<Map.Entry<String,Object>> listPkFields = new ArrayList<>();
+        int rs = 0;
 
-        StringBuilder builder = new StringBuilder();
+        Connection con = null;
+        try{
+            con = getConnection(voGenerator.getClass(), false);
+            PreparedStatement ps = prepare(con, sql);
+            bindPrimaryKey(ps, entitySql, voGenerator);
 
-        builder.append("UPDATE ")
-                .append(getTableName(voGenerator)).
-                append(" SET ");
+            logger.info("ValueObject: " + voGenerator.toString());
+            logger.info("Doing Delete in table: " + getTableName(voGenerator));
+            logger.info("DELETE STATEMENT: " + sql);
+            rs = ps.executeUpdate();
+            commit(con);
+            invalidateCache(voGenerator);
 
-        while (iteratorAllFields.hasNext()){
-            listAllFields.add(iteratorAllFields.next());
+        }catch (SQLException e){
+            evict(con, sql);
+            logger.info("ERROR IN TABLE " + getTableName(voGenerator));
+            throw new DAOException("EXCEPTION IS: " + e.getMessage(), e);
+
+        }finally {
+            releaseConnection(con);
         }
 
-        while (iteratorPkFileds.hasNext()){
-            listPkFields.add(iteratorPkFileds.next());
+        return rs;
+    }
+
+    public int create(VOGenerator voGenerator)throws DAOException{
+
+        EntitySql entitySql = EntitySql.of(voGenerator.getClass());
+        String sql = entitySql.getInsertStatement();
+
+        int rs = 0;
+
+        Connection con = null;
+        try{
+            con = getConnection(voGenerator.getClass(), false);
+            PreparedStatement ps = prepare(con, sql);
+            bindInsert(ps, entitySql, voGenerator);
+
+            logger.info("ValueObject: " + voGenerator.toString());
+            logger.info("Doing Insert in table: " + getTableName(voGenerator));
+            logger.info("INSERT STATEMENT: " + sql);
+            rs = ps.executeUpdate();
+            commit(con);
+            invalidateCache(voGenerator);
+
+        }catch (SQLException e){
+            evict(con, sql);
+            logger.info("ERROR IN TABLE " + getTableName(voGenerator));
+            throw new DAOException("EXCEPTION IS: " + e.getMessage(), e);
+
+        }finally {
+            releaseConnection(con);
         }
 
-        StringBuilder whereCondition = new StringBuilder();
-        whereCondition.append(" WHERE ");
+        return rs;
+    }
+
+    /**
+     * This method insert the row of the vo or update it if the primary key exists, with a single statement
+     * (MERGE for oracle, INSERT ... ON DUPLICATE KEY UPDATE for mysql).
+     * The @Column(lazy = true) columns not set are inserted but not updated
+     *
+     * @param voGenerator value object to insert or update
+     * @return number of rows changed as returned by the driver
+     */
+    public int upsert(VOGenerator voGenerator)throws DAOException {
+
+        EntitySql entitySql = EntitySql.of(voGenerator.getClass());
+        String sql = null;
 
-        for(int i = 0; i < listAllFields.size(); i++){
-            String fieldAllName = listAllFields.get(i).getKey();
-            Object fieldAllValue = listAllFields.get(i).getValue();
+        int rs = 0;
 
-            builder.append(fieldAllName)
-                    .append(" = ");
+        Connection con = null;
+        try{
+            con = getConnection(voGenerator.getClass(), false);
+            sql = entitySql.getUpsertStatement(SqlDialect.of(con),
+                    getSetLazyColumns(entitySql.getMetadata().getLazyColumns(), voGenerator));
+            PreparedStatement ps = prepare(con, sql);
+            bindColumns(ps, 1, entitySql.getMetadata().getColumns(), voGenerator);
 
-            if(fieldAllValue instanceof String){
-                builder.append("'").append(fieldAllValue).append("'");
+            logger.info("ValueObject: " + voGenerator.toString());
+            logger.info("Doing Upsert in table: " + getTableName(voGenerator));
+            logger.info("UPSERT STATEMENT: " + sql);
+            rs = ps.executeUpdate();
+            commit(con);
 
-            }else {
-                builder.append(fieldAllValue);
+        }catch (SQLException e){
+            if (sql != null) {
+                evict(con, sql);
             }
+            logger.info("ERROR IN TABLE " + getTableName(voGenerator));
+            throw new DAOException("EXCEPTION IS: " + e.getMessage(), e);
+
+        }finally {
+            invalidateCache(voGenerator);
+            DirtyTracker.clear(voGenerator);
+            releaseConnection(con);
+        }
 
-            if(i < listAllFields.size() - 1){
-                builder.append(",");
+        return rs;
+    }
+
+    /**
+     * This method insert or update all the vo with JDBC batches of the upsert statement, the rows are grouped by vo class
+     * and by the @Column(lazy = true) columns set, the lazy columns not set are inserted but not updated
+     *
+     * @param voGenerators value objects to insert or update
+     * @return update count of every row, in the same order of the collection
+     */
+    public int[] upsertAll(Collection<? extends VOGenerator> voGenerators) throws DAOException {
+
+        try {
+            return executeBatch(voGenerators, "UPSERT", (ps, entitySql, voGenerator) ->
+                    bindColumns(ps, 1, entitySql.getMetadata().getColumns(), voGenerator));
+        } finally {
+            invalidateCache(voGenerators);
+            for (VOGenerator voGenerator : voGenerators) {
+                if (voGenerator != null) {
+                    DirtyTracker.clear(voGenerator);
+                }
             }
         }
+    }
 
-        for(int k = 0; k < listPkFields.size(); k++){
-            String fieldPkName = listPkFields.get(k).getKey();
-            Object fieldPkVaue = listPkFields.get(k).getValue();
+    /**
+     * This method insert all the vo with multi row statements (INSERT ALL for oracle, INSERT ... VALUES (...), (...)
+     * for the others), every statement has at most batchSize rows and 65535 parameters.
+     * The rows are grouped by vo class, in routing mode every class is committed after its last statement
+     *
+     * @param voGenerators value objects to insert
+     * @return number of rows inserted
+     */
+    public int createAllMultiRow(Collection<? extends VOGenerator> voGenerators) throws DAOException {
+
+        Map<Class<?>, List<VOGenerator>> rowsByClass = new LinkedHashMap<>();
+        for (VOGenerator voGenerator : voGenerators) {
+            rowsByClass.computeIfAbsent(voGenerator.getClass(), k -> new ArrayList<>()).add(voGenerator);
+        }
 
-            whereCondition.append(fieldPkName)
-                    .append(" = ");
+        int inserted = 0;
 
-            if(fieldPkVaue instanceof String){
-                whereCondition.append("'")
-                        .append(fieldPkVaue)
-                        .append("'");
+        try {
+            for (Map.Entry<Class<?>, List<VOGenerator>> entry : rowsByClass.entrySet()) {
+                EntitySql entitySql = EntitySql.of(entry.getKey());
+                List<FieldMetadata> columns = entitySql.getMetadata().getColumns();
+                List<VOGenerator> rows = entry.getValue();
+
+                int rowsPerStatement = Math.max(1, Math.min(batchSize, MAX_BIND_PARAMETERS / Math.max(1, columns.size())));
+
+                Connection con = null;
+                String sql = null;
+                try {
+                    con = getConnection(entry.getKey(), false);
+                    SqlDialect dialect = SqlDialect.of(con);
+
+                    logger.info("Doing Multi Row Insert of " + rows.size() + " rows in table: " + entitySql.getMetadata().getTableName());
+
+                    for (int start = 0; start < rows.size(); start += rowsPerStatement) {
+                        int end = Math.min(start + rowsPerStatement, rows.size());
+
+                        sql = entitySql.getMultiRowInsertStatement(dialect, end - start);
+                        PreparedStatement ps = prepare(con, sql);
+                        int index = 1;
+                        for (int i = start; i < end; i++) {
+                            index = bindColumns(ps, index, columns, rows.get(i));
+                        }
+                        inserted += ps.executeUpdate();
+                    }
+                    commit(con);
 
-            }else {
-                whereCondition.append(fieldPkVaue);
+                }catch (SQLException e){
+                    if (sql != null) {
+                        evict(con, sql);
+                    }
+                    logger.info("ERROR IN TABLE " + entitySql.getMetadata().getTableName());
+                    throw new DAOException("EXCEPTION IS: " + e.getMessage(), e);
 
+                }finally {
+                    releaseConnection(con);
+                }
             }
-            if(k < listPkFields.size() - 1){
-                whereCondition.append(" AND ");
+        } finally {
+            invalidateCache(voGenerators);
+        }
+
+        return inserted;
+    }
+
+    /**
+     * This method insert all the vo with JDBC batches, the rows are grouped by vo class
+     *
+     * @param voGenerators value objects to insert
+     * @return update count of every row, in the same order of the collection
+     */
+    public int[] createAll(Collection<? extends VOGenerator> voGenerators) throws DAOException {
+        try {
+            return executeBatch(voGenerators, "INSERT", this::bindInsert);
+        } finally {
+            invalidateCache(voGenerators);
+        }
+    }
+
+    /**
+     * This method update all the vo with JDBC batches, the rows are grouped by vo class.
+     * The @Column(lazy = true) columns are not written, they are updated by update
+     *
+     * @param voGenerators value objects to update
+     * @return update count of every row, in the same order of the collection
+     */
+    public int[] updateAll(Collection<? extends VOGenerator> voGenerators) throws DAOException {
+        try {
+            return executeBatch(voGenerators, "UPDATE", this::bindUpdate);
+        } finally {
+            invalidateCache(voGenerators);
+            //the batch writes all the columns, the snapshot of the vo is no longer the row in the database
+            for (VOGenerator voGenerator : voGenerators) {
+                if (voGenerator != null) {
+                    DirtyTracker.clear(voGenerator);
+                }
             }
         }
+    }
 
-        builder.append(whereCondition.toString());
+    /**
+     * This method delete all the vo with JDBC batches, the rows are grouped by vo class
+     *
+     * @param voGenerators value objects to delete
+     * @return update count of every row, in the same order of the collection
+     */
+    public int[] deleteAll(Collection<? extends VOGenerator> voGenerators) throws DAOException {
+        try {
+            return executeBatch(voGenerators, "DELETE", this::bindPrimaryKey);
+        } finally {
+            invalidateCache(voGenerators);
+        }
+    }
 
-        return builder.toString();
+    private String getStatement(EntitySql entitySql, String operation, Connection con, VOGenerator voGenerator) throws SQLException {
+
+        switch (operation) {
+            case "UPSERT":
+                return entitySql.getUpsertStatement(SqlDialect.of(con),
+                        getSetLazyColumns(entitySql.getMetadata().getLazyColumns(), voGenerator));
+            case "INSERT":
+                return entitySql.getInsertStatement();
+            case "UPDATE":
+                return entitySql.getUpdateStatement();
+            case "DELETE":
+                return entitySql.getDeleteStatement();
+            default:
+                throw new IllegalArgumentException("operation not supported: " + operation);
+        }
     }
 
-    private List<String> getALlFieldName(VOGenerator voGenerator){
+    /**
+     * This method execute the batches of the operation. With the connection of the dao the transaction is managed by the caller,
+     * in routing mode the rows of every vo class are committed together and rolled back together when a batch fails
+     */
+    private int[] executeBatch(Collection<? extends VOGenerator> voGenerators, String operation, StatementBinder binder) throws DAOException {
 
-        List<String> getALlFieldName = new ArrayList<>();
+        List<VOGenerator> rows = new ArrayList<>(voGenerators);
+        int[] updateCounts = new int[rows.size()];
+        Arrays.fill(updateCounts, Statement.EXECUTE_FAILED);
 
-        Field[] fields = voGenerator.getClass().getDeclaredFields();
+        Map<Class<?>, List<Integer>> rowsByClass = new LinkedHashMap<>();
+        for (int i = 0; i < rows.size(); i++) {
+            rowsByClass.computeIfAbsent(rows.get(i).getClass(), k -> new ArrayList<>()).add(i);
+        }
 
-        for(Field field : fields){
-            getALlFieldName.add(field.getName());
+        for (Map.Entry<Class<?>, List<Integer>> entry : rowsByClass.entrySet()) {
+            EntitySql entitySql = EntitySql.of(entry.getKey());
+            List<Integer> indexes = entry.getValue();
+
+            Connection con = null;
+            try {
+                //the rows of the class by statement, the upsert has a statement for every set of lazy columns
+                Map<String, List<Integer>> rowsByStatement = new LinkedHashMap<>();
+                try {
+                    con = getConnection(entry.getKey(), false);
+                    for (Integer index : indexes) {
+                        rowsByStatement.computeIfAbsent(getStatement(entitySql, operation, con, rows.get(index)), k -> new ArrayList<>())
+                                .add(index);
+                    }
+                } catch (SQLException e) {
+                    throw new BatchDAOException("BATCH " + operation + " FAILED AT ROW " + indexes.get(0)
+                            + " OF " + rows.size() + " EXCEPTION IS: " + e.getMessage(), e, updateCounts, indexes.get(0));
+                }
+
+                logger.info("Doing Batch " + operation + " of " + indexes.size() + " rows in table: " + entitySql.getMetadata().getTableName());
+
+                int statementsLeft = rowsByStatement.size();
+                for (Map.Entry<String, List<Integer>> statement : rowsByStatement.entrySet()) {
+                    String sql = statement.getKey();
+                    List<Integer> statementIndexes = statement.getValue();
+                    statementsLeft--;
+
+                    logger.info(operation + " STATEMENT: " + sql);
+
+                    for (int start = 0; start < statementIndexes.size(); start += batchSize) {
+                        int end = Math.min(start + batchSize, statementIndexes.size());
+
+                        try {
+                            PreparedStatement ps = prepare(con, sql);
+                            ps.clearBatch();
+                            for (int i = start; i < end; i++) {
+                                ps.clearParameters();
+                                binder.bind(ps, entitySql, rows.get(statementIndexes.get(i)));
+                                ps.addBatch();
+                            }
+
+                            int[] counts = ps.executeBatch();
+                            for (int i = 0; i < counts.length; i++) {
+                                updateCounts[statementIndexes.get(start + i)] = counts[i];
+                            }
+                            if (statementsLeft == 0 && end == statementIndexes.size()) {
+                                commit(con);
+                            }
+
+                        } catch (BatchUpdateException e) {
+                            int[] counts = e.getUpdateCounts() != null ? e.getUpdateCounts() : new int[0];
+                            int failedRow = start + counts.length;
+                            for (int i = 0; i < counts.length && start + i < end; i++) {
+                                updateCounts[statementIndexes.get(start + i)] = counts[i];
+                                if (counts[i] == Statement.EXECUTE_FAILED && failedRow == start + counts.length) {
+                                    failedRow = start + i;
+                                }
+                            }
+                            int failedIndex = statementIndexes.get(Math.min(failedRow, end - 1));
+                            evict(con, sql);
+
+                            logger.info("ERROR IN TABLE " + entitySql.getMetadata().getTableName() + " AT ROW " + failedIndex);
+                            throw new BatchDAOException("BATCH " + operation + " FAILED AT ROW " + failedIndex
+                                    + " OF " + rows.size() + " EXCEPTION IS: " + e.getMessage(), e, updateCounts, failedIndex);
+
+                        } catch (SQLException e) {
+                            evict(con, sql);
+                            int failedIndex = statementIndexes.get(start);
+
+                            logger.info("ERROR IN TABLE " + entitySql.getMetadata().getTableName() + " AT ROW " + failedIndex);
+                            throw new BatchDAOException("BATCH " + operation + " FAILED AT ROW " + failedIndex
+                                    + " OF " + rows.size() + " EXCEPTION IS: " + e.getMessage(), e, updateCounts, failedIndex);
+                        }
+                    }
+                }
+            } finally {
+                releaseConnection(con);
+            }
         }
 
-        return getALlFieldName;
+        return updateCounts;
     }
 
-    public <T extends VOGenerator> T readByPrimaryKey(T voGenerator)throws DAOException {
+    /**
+     * This method read many rows by primary key with a statement for every inChunkSize keys:
+     * WHERE ID IN (?, ?) or WHERE (ID1, ID2) IN ((?, ?), (?, ?)) for a composite primary key
+     *
+     * @param clazz value object class
+     * @param keys  value of the @Id for a single primary key, List of the @Id values in the order of the fields
+     *              for a composite primary key; the values must have the type of the @Id fields
+     * @return the vo found by key, in the order of the keys; the keys not found are not in the map
+     */
+    public <T extends VOGenerator> Map<Object, T> readAllByPrimaryKeys(Class<T> clazz, Collection<?> keys) throws DAOException {
+
+        EntitySql entitySql = EntitySql.of(clazz);
+        List<FieldMetadata> pkColumns = entitySql.getMetadata().getPrimaryKeys();
+        RowMapper rowMapper = RowMapper.of(clazz);
+        EntityCache cache = getCacheToFill(clazz);
+
+        List<Object> distinctKeys = new ArrayList<>(new LinkedHashSet<>(keys));
+        for (Object key : distinctKeys) {
+            if (pkColumns.size() > 1 && (!(key instanceof List) || ((List<?>) key).size() != pkColumns.size())) {
+                throw new IllegalArgumentException("the key of " + clazz.getSimpleName() + " must be a List of "
+                        + pkColumns.size() + " values: " + key);
+            }
+        }
+
+        Map<Object, T> found = new HashMap<>();
+        if (distinctKeys.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
 
-        String sql = getReadByPrimaryKeyStatement(voGenerator);
-        Field[] fields = voGenerator.getClass().getDeclaredFields();
+        long cacheVersion = cache != null ? cache.getVersion() : 0;
 
-        Statement st = null;
-        ResultSet rs = null;
+        Connection con = null;
+        String sql = null;
         try{
-            st = connection.createStatement();
+            con = getConnection(clazz, true);
 
-            logger.info("ValueObject: " + voGenerator.toString());
-            logger.info("Doing Read By Primary Key on table: " + getTableName(voGenerator));
-            logger.info("READ BY PRIMARY KEY STATEMENT: " + sql);
-            rs = st.executeQuery(sql);
+            logger.info("Doing Read By Primary Keys of " + distinctKeys.size() + " keys on table: " + entitySql.getMetadata().getTableName());
 
-            if(rs != null && rs.next()){
-                for (Field field : fields){
-                    field.setAccessible(true);
-                    field.set(voGenerator,rs.getObject(field.getName()));
+            for (int start = 0; start < distinctKeys.size(); start += inChunkSize) {
+                int end = Math.min(start + inChunkSize, distinctKeys.size());
+
+                sql = entitySql.getReadByPrimaryKeysStatement(end - start);
+                PreparedStatement ps = prepare(con, sql);
+
+                int index = 1;
+                for (int i = start; i < end; i++) {
+                    Object key = distinctKeys.get(i);
+                    for (int k = 0; k < pkColumns.size(); k++) {
+                        Object value = pkColumns.size() == 1 ? key : ((List<?>) key).get(k);
+                        JdbcTypes.bind(ps, index++, value, pkColumns.get(k).getType());
+                    }
                 }
-            }
 
-        }catch (IllegalAccessException | IllegalArgumentException illEx){
-            throw new RuntimeException("GENERAL TECHNICAL ERROR " + illEx.getMessage());
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        T voGenerator = clazz.cast(rowMapper.newInstance(rs));
+                        DirtyTracker.snapshot(voGenerator);
+                        if (cache != null) {
+                            cache.put(voGenerator, cacheVersion);
+                        }
+                        found.put(getKey(pkColumns, voGenerator), voGenerator);
+                    }
+                }
+            }
 
         }catch (SQLException e){
-            logger.info("ERROR IN TABLE " + getTableName(voGenerator));
-            throw new DAOException("EXCEPTION IS: " + e.getMessage());
+            if (sql != null) {
+                evict(con, sql);
+            }
+            logger.info("ERROR IN TABLE " + entitySql.getMetadata().getTableName());
+            throw new DAOException("EXCEPTION IS: " + e.getMessage(), e);
 
         }finally {
-            try {
-                if (rs != null) {
-                    rs.close();
-                    st.close();
-                }
-            } catch (SQLException e) {
-                logger.info("ERROR CLOSING RESOURCES " + e.getMessage());
+            releaseConnection(con);
+        }
+
+        Map<Object, T> result = new LinkedHashMap<>();
+        for (Object key : distinctKeys) {
+            T voGenerator = found.get(key);
+            if (voGenerator != null) {
+                result.put(key, voGenerator);
             }
         }
 
-        return voGenerator;
+        return result;
     }
 
-    public int update(VOGenerator voGenerator)throws DAOException {
+    /**
+     * This method read a page of rows ordered by primary key, seeking after the key of the previous page
+     * instead of skipping the rows with an OFFSET
+     *
+     * @param clazz    value object class
+     * @param afterKey key of the last row of the previous page (Page.getNextKey), null for the first page
+     * @param limit    max number of rows of the page
+     * @return the page with the key of the next page
+     */
+    public <T extends VOGenerator> Page<T> page(Class<T> clazz, Object afterKey, int limit) throws DAOException {
+
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be greater than 0: " + limit);
+        }
 
-        String sql = getUpdateStatement(voGenerator);
+        EntitySql entitySql = EntitySql.of(clazz);
+        List<FieldMetadata> pkColumns = entitySql.getMetadata().getPrimaryKeys();
+        RowMapper rowMapper = RowMapper.of(clazz);
 
-        int rs = 0;
+        if (afterKey != null && pkColumns.size() > 1 && (!(afterKey instanceof List) || ((List<?>) afterKey).size() != pkColumns.size())) {
+            throw new IllegalArgumentException("the key of " + clazz.getSimpleName() + " must be a List of "
+                    + pkColumns.size() + " values: " + afterKey);
+        }
 
-        Statement st = null;
+        List<T> items = new ArrayList<>();
+        boolean hasNext = false;
 
+        Connection con = null;
+        String sql = null;
+        ResultSet rs = null;
         try{
-            st = connection.createStatement();
+            con = getConnection(clazz, true);
+            sql = entitySql.getPageStatement(SqlDialect.of(con), afterKey == null);
+            PreparedStatement ps = prepare(con, sql);
+
+            int index = 1;
+            if (afterKey != null) {
+                if (pkColumns.size() == 1) {
+                    JdbcTypes.bind(ps, index++, afterKey, pkColumns.get(0).getType());
+                } else {
+                    List<?> key = (List<?>) afterKey;
+                    JdbcTypes.bind(ps, index++, key.get(0), pkColumns.get(0).getType());
+                    for (int k = 0; k < pkColumns.size(); k++) {
+                        for (int e = 0; e <= k; e++) {
+                            JdbcTypes.bind(ps, index++, key.get(e), pkColumns.get(e).getType());
+                        }
+                    }
+                }
+            }
+            //one row more than the page tells if there is a next page
+            ps.setInt(index, limit + 1);
 
-            logger.info("ValueObject: " + voGenerator.toString());
-            logger.info("Doing Update in table: " + getTableName(voGenerator));
-            logger.info("UPDATE STATEMENT: " + sql);
-            rs = st.executeUpdate(sql);
+            logger.info("Doing Page of " + limit + " rows on table: " + entitySql.getMetadata().getTableName());
+            logger.info("PAGE STATEMENT: " + sql);
+            rs = ps.executeQuery();
+
+            while (rs.next()) {
+                if (items.size() == limit) {
+                    hasNext = true;
+                    break;
+                }
+                T voGenerator = clazz.cast(rowMapper.newInstance(rs));
+                DirtyTracker.snapshot(voGenerator);
+                items.add(voGenerator);
+            }
 
         }catch (SQLException e){
-            logger.info("ERROR IN TABLE " + getTableName(voGenerator));
-            throw new DAOException("EXCEPTION IS: " + e.getMessage());
+            if (sql != null) {
+                evict(con, sql);
+            }
+            logger.info("ERROR IN TABLE " + entitySql.getMetadata().getTableName());
+            throw new DAOException("EXCEPTION IS: " + e.getMessage(), e);
 
         }finally {
             try {
-                if (st != null) {
-                    st.close();
+                if (rs != null) {
+                    rs.close();
                 }
             } catch (SQLException e) {
                 logger.info("ERROR CLOSING RESOURCES " + e.getMessage());
             }
+            releaseConnection(con);
         }
 
-        return rs;
+        Object nextKey = hasNext ? getKey(pkColumns, items.get(items.size() - 1)) : null;
+
+        return new Page<>(items, nextKey);
     }
 
-    public int delete(VOGenerator voGenerator)throws DAOException {
+    private static List<FieldMetadata> getSetLazyColumns(List<FieldMetadata> lazyColumns, VOGenerator voGenerator) {
 
-        String sql = getDeleteStatement(voGenerator);
-        int rs = 0;
+        List<FieldMetadata> setColumns = new ArrayList<>();
+        for (FieldMetadata column : lazyColumns) {
+            if (column.get(voGenerator) != null) {
+                setColumns.add(column);
+            }
+        }
+
+        return setColumns;
+    }
+
+    private static Object getKey(List<FieldMetadata> pkColumns, VOGenerator voGenerator) {
+
+        if (pkColumns.size() == 1) {
+            return pkColumns.get(0).get(voGenerator);
+        }
+
+        List<Object> key = new ArrayList<>(pkColumns.size());
+        for (FieldMetadata pkColumn : pkColumns) {
+            key.add(pkColumn.get(voGenerator));
+        }
+
+        return key;
+    }
+
+    /**
+     * This method execute the @Query (or call the DAOGenerator method of the @Method) declared on a method of the
+     * dao subclass, es:
+     * <pre>
+     * &#64;Query("SELECT * FROM D02RT001 WHERE D02001_2222 LIKE :prefix")
+     * public List&lt;VOD02RT001&gt; findByPrefix(&#64;Param("prefix") String prefix) throws DAOException {
+     *     return invokeQuery("findByPrefix", prefix);
+     * }
+     * </pre>
+     *
+     * @param methodName name of the annotated method
+     * @param args       arguments of the method
+     * @return the result mapped on the return type of the method
+     */
+    @SuppressWarnings("unchecked")
+    protected <R> R invokeQuery(String methodName, Object... args) throws DAOException {
+
+        QueryMethod queryMethod = QueryMethod.forClass(getClass()).get(methodName);
+        if (queryMethod == null) {
+            throw new IllegalArgumentException("no @Query or @Method method " + methodName + " in " + getClass().getName());
+        }
 
-        Statement st = null;
+        return (R) invoke(queryMethod, args);
+    }
+
+    /**
+     * This method implement an interface of @Query and @Method methods with this dao, the default methods
+     * of the interface are called as they are
+     *
+     * @param daoInterface interface of the queries
+     * @return implementation of the interface
+     */
+    public <D> D bind(Class<D> daoInterface) {
+
+        if (!daoInterface.isInterface()) {
+            throw new IllegalArgumentException(daoInterface.getName() + " is not an interface");
+        }
+
+        for (java.lang.reflect.Method method : daoInterface.getMethods()) {
+            if (QueryMethod.isAnnotated(method)) {
+                QueryMethod.of(method);
+            }
+        }
+
+        Object proxy = Proxy.newProxyInstance(daoInterface.getClassLoader(), new Class<?>[]{daoInterface}, (instance, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                switch (method.getName()) {
+                    case "equals":
+                        return instance == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(instance);
+                    default:
+                        return daoInterface.getSimpleName() + " bound to " + this;
+                }
+            }
+
+            if (QueryMethod.isAnnotated(method)) {
+                return invoke(QueryMethod.of(method), args);
+            }
+
+            if (method.isDefault()) {
+                return MethodHandles.privateLookupIn(daoInterface, MethodHandles.lookup())
+                        .unreflectSpecial(method, daoInterface)
+                        .bindTo(instance)
+                        .invokeWithArguments(args == null ? new Object[0] : args);
+            }
 
+            throw new UnsupportedOperationException(method.getName() + " of " + daoInterface.getName() + " has no @Query or @Method");
+        });
+
+        return daoInterface.cast(proxy);
+    }
+
+    private Object invoke(QueryMethod queryMethod, Object[] args) throws DAOException {
+
+        if (queryMethod.getDelegateName() != null) {
+            return invokeDelegate(queryMethod, args);
+        }
+
+        Object[] parameters = queryMethod.getParameters(args);
+        String sql = queryMethod.getSql();
+
+        if (queryMethod.getResultKind() == QueryMethod.ResultKind.STREAM) {
+            return openStream(queryMethod.getEntityClass(), sql, parameters, "query: " + queryMethod.getName(),
+                    resultSet -> snapshot(queryMethod.mapRow(resultSet)));
+        }
+
+        Connection con = null;
+        ResultSet rs = null;
         try{
-            st = connection.createStatement();
+            con = getConnection(queryMethod.getEntityClass(), !queryMethod.isUpdate());
+            PreparedStatement ps = prepare(con, sql);
+            for (int i = 0; i < parameters.length; i++) {
+                JdbcTypes.bind(ps, i + 1, parameters[i], parameters[i] == null ? Object.class : parameters[i].getClass());
+            }
 
-            logger.info("ValueObject: " + voGenerator.toString());
-            logger.info("Doing Delete in table: " + getTableName(voGenerator));
-            logger.info("DELETE STATEMENT: " + sql);
-            rs = st.executeUpdate(sql);
+            logger.info("Doing Query: " + queryMethod.getName());
+            logger.info("QUERY STATEMENT: " + sql);
+
+            if (queryMethod.isUpdate()) {
+                int count = ps.executeUpdate();
+                commit(con);
+                //the tables changed by the query are unknown
+                for (Optional<EntityCache> cache : caches.values()) {
+                    cache.ifPresent(EntityCache::clear);
+                }
+
+                if (queryMethod.getResultKind() == QueryMethod.ResultKind.VOID) {
+                    return null;
+                }
+                Class<?> returnType = queryMethod.getMethod().getReturnType();
+                return returnType == long.class || returnType == Long.class ? (Object) (long) count : (Object) count;
+            }
+
+            rs = ps.executeQuery();
+
+            switch (queryMethod.getResultKind()) {
+                case LIST:
+                    List<Object> rows = new ArrayList<>();
+                    while (rs.next()) {
+                        rows.add(snapshot(queryMethod.mapRow(rs)));
+                    }
+                    return rows;
+
+                case OPTIONAL:
+                    return Optional.ofNullable(rs.next() ? snapshot(queryMethod.mapRow(rs)) : null);
+
+                default:
+                    Object row = rs.next() ? snapshot(queryMethod.mapRow(rs)) : null;
+                    if (row == null && queryMethod.getElementType().isPrimitive()) {
+                        throw new DAOException("EXCEPTION IS: " + queryMethod.getName() + " RETURNED NO VALUE");
+                    }
+                    return row;
+            }
 
         }catch (SQLException e){
-            logger.info("ERROR IN TABLE " + getTableName(voGenerator));
-            throw new DAOException("EXCEPTION IS: " + e.getMessage());
+            evict(con, sql);
+            logger.info("ERROR IN QUERY " + queryMethod.getName());
+            throw new DAOException("EXCEPTION IS: " + e.getMessage(), e);
 
         }finally {
             try {
-                if (st != null) {
-                    st.close();
+                if (rs != null) {
+                    rs.close();
                 }
             } catch (SQLException e) {
                 logger.info("ERROR CLOSING RESOURCES " + e.getMessage());
             }
+            releaseConnection(con);
         }
+    }
 
-        return rs;
+    private static Object snapshot(Object row) {
+
+        //a vo read by a query can have only some columns: the update after writes only the columns changed
+        if (row instanceof VOGenerator) {
+            DirtyTracker.snapshot((VOGenerator) row);
+        }
+        return row;
     }
 
-    public int create(VOGenerator voGenerator)throws DAOException{
+    private Object invokeDelegate(QueryMethod queryMethod, Object[] args) throws DAOException {
 
-        String sql = getInsertStatement(voGenerator);
-        int rs = 0;
+        Object[] arguments = args == null ? new Object[0] : args;
+
+        for (java.lang.reflect.Method method : DAOGenerator.class.getMethods()) {
+            if (!method.getName().equals(queryMethod.getDelegateName()) || method.getParameterCount() != arguments.length) {
+                continue;
+            }
+            Class<?>[] parameterTypes = method.getParameterTypes();
+            boolean compatible = true;
+            for (int i = 0; i < parameterTypes.length && compatible; i++) {
+                compatible = arguments[i] == null ? !parameterTypes[i].isPrimitive() : wrap(parameterTypes[i]).isInstance(arguments[i]);
+            }
+            if (!compatible) {
+                continue;
+            }
 
-        Statement st = null;
+            try {
+                return method.invoke(this, arguments);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof DAOException) {
+                    throw (DAOException) cause;
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new DAOException("EXCEPTION IS: " + cause.getMessage(), (Exception) cause);
+            } catch (IllegalAccessException e) {
+                throw new DAOException("EXCEPTION IS: " + e.getMessage(), e);
+            }
+        }
 
-        try{
-            st = connection.createStatement();
+        throw new IllegalStateException(queryMethod.getName() + ": no DAOGenerator method " + queryMethod.getDelegateName()
+                + " for the arguments");
+    }
 
-            logger.info("ValueObject: " + voGenerator.toString());
-            logger.info("Doing Insert in table: " + getTableName(voGenerator));
-            logger.info("INSERT STATEMENT: " + sql);
-            rs = st.executeUpdate(sql);
+    private static Class<?> wrap(Class<?> type) {
 
-        }catch (SQLException e){
-            logger.info("ERROR IN TABLE " + getTableName(voGenerator));
-            throw new DAOException("EXCEPTION IS: " + e.getMessage());
+        if (!type.isPrimitive()) {
+            return type;
+        }
+        return MethodType.methodType(type).wrap().returnType();
+    }
 
-        }finally {
-            try {
-                if (st != null) {
-                    st.close();
+    /**
+     * This method read the rows of the table as a lazy stream: the rows are fetched in blocks of fetchSize
+     * and mapped on a new vo only when the consumer pulls them. The stream must be closed (try-with-resources)
+     * to close the ResultSet and the statement and to give back the connection
+     *
+     * @param clazz  value object class
+     * @param where  condition without the WHERE keyword, with ? for the parameters (null for all the rows)
+     * @param params values of the parameters
+     * @return stream of vo
+     */
+    public <T extends VOGenerator> Stream<T> stream(Class<T> clazz, String where, Object... params) throws DAOException {
+
+        EntitySql entitySql = EntitySql.of(clazz);
+        String sql = entitySql.getSelectStatement(where);
+        RowMapper rowMapper = RowMapper.of(clazz);
+
+        return openStream(clazz, sql, params, "table: " + entitySql.getMetadata().getTableName(),
+                resultSet -> clazz.cast(rowMapper.newInstance(resultSet)));
+    }
+
+    /**
+     * This method read the rows of the table as a lazy stream of projections, selecting only the columns
+     * of the record or interface. The stream must be closed like the stream of vo
+     *
+     * @param clazz      value object class
+     * @param projection record or interface with the names of @Column fields
+     * @param where      condition without the WHERE keyword, with ? for the parameters (null for all the rows)
+     * @param params     values of the parameters
+     * @return stream of projections
+     */
+    public <P> Stream<P> stream(Class<? extends VOGenerator> clazz, Class<P> projection, String where, Object... params) throws DAOException {
+
+        EntitySql entitySql = EntitySql.of(clazz);
+        ProjectionMapper mapper = ProjectionMapper.of(clazz, projection);
+        String sql = entitySql.getSelectStatement(mapper.getColumns(), where);
+
+        return openStream(clazz, sql, params, "table: " + entitySql.getMetadata().getTableName(),
+                resultSet -> projection.cast(mapper.map(resultSet)));
+    }
+
+    /**
+     * This method read the rows of the table as a list of projections
+     *
+     * @param clazz      value object class
+     * @param projection record or interface with the names of @Column fields
+     * @param where      condition without the WHERE keyword, with ? for the parameters (null for all the rows)
+     * @param params     values of the parameters
+     * @return list of projections
+     */
+    public <P> List<P> readAll(Class<? extends VOGenerator> clazz, Class<P> projection, String where, Object... params) throws DAOException {
+
+        try (Stream<P> stream = stream(clazz, projection, where, params)) {
+            return stream.collect(Collectors.toList());
+
+        } catch (RuntimeException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw new DAOException(e.getMessage(), (SQLException) e.getCause());
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * This method execute the select on a dedicated statement and give the rows as a lazy stream,
+     * the statement and the connection are released when the stream is closed
+     */
+    private <T> Stream<T> openStream(Class<?> entityClass, String sql, Object[] params, String description,
+                                     RowFunction<T> rowFunction) throws DAOException {
+
+        Connection con = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+
+        try {
+            con = getConnection(entityClass, true);
+            ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            for (int i = 0; params != null && i < params.length; i++) {
+                JdbcTypes.bind(ps, i + 1, params[i], params[i] == null ? Object.class : params[i].getClass());
+            }
+
+            logger.info("Doing Stream on " + description);
+            logger.info("STREAM STATEMENT: " + sql);
+            rs = ps.executeQuery();
+
+        } catch (SQLException e) {
+            closeStream(rs, ps, con);
+            logger.info("ERROR IN " + description.toUpperCase());
+            throw new DAOException("EXCEPTION IS: " + e.getMessage(), e);
+        }
+
+        final Connection streamConnection = con;
+        final PreparedStatement streamStatement = ps;
+        final ResultSet resultSet = rs;
+
+        Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                try {
+                    if (!resultSet.next()) {
+                        return false;
+                    }
+                    action.accept(rowFunction.apply(resultSet));
+                    return true;
+
+                } catch (SQLException e) {
+                    throw new RuntimeException("EXCEPTION IS: " + e.getMessage(), e);
                 }
-            } catch (SQLException e) {
-                logger.info("ERROR CLOSING RESOURCES " + e.getMessage());
             }
+        };
+
+        return StreamSupport.stream(spliterator, false)
+                .onClose(() -> closeStream(resultSet, streamStatement, streamConnection));
+    }
+
+    /**
+     * This method read the rows of the table one by one and give them to the consumer, the resources are closed at the end
+     *
+     * @param clazz    value object class
+     * @param where    condition without the WHERE keyword, with ? for the parameters (null for all the rows)
+     * @param consumer consumer of the vo
+     * @param params   values of the parameters
+     */
+    public <T extends VOGenerator> void forEach(Class<T> clazz, String where, Consumer<? super T> consumer, Object... params) throws DAOException {
+
+        try (Stream<T> stream = stream(clazz, where, params)) {
+            stream.forEach(consumer);
+
+        } catch (RuntimeException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw new DAOException(e.getMessage(), (SQLException) e.getCause());
+            }
+            throw e;
         }
+    }
 
-        return rs;
+    private void closeStream(ResultSet rs, PreparedStatement ps, Connection con) {
+
+        try {
+            if (rs != null) {
+                rs.close();
+            }
+            if (ps != null) {
+                ps.close();
+            }
+        } catch (SQLException e) {
+            logger.info("ERROR CLOSING RESOURCES " + e.getMessage());
+        } finally {
+            releaseConnection(con);
+        }
     }
 
 }
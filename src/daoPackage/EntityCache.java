@@ -0,0 +1,318 @@
+package daoPackage;
+
+import voPackage.CacheEviction;
+import voPackage.Entity;
+import voPackage.EntityMetadata;
+import voPackage.FieldMetadata;
+import voPackage.VOGenerator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache of readByPrimaryKey for one vo class, enabled with @Entity(cacheSize).
+ * The key is the list of the @Id values, the value is a copy of the columns of the row, so the cached row
+ * is never shared with the vo of the caller; the lazy columns are not cached. There is one cache per vo class for all the dao,
+ * every dao removes the row on create, update and delete
+ */
+public final class EntityCache {
+
+    private final EntityMetadata metadata;
+
+    private final int maxSize;
+
+    private final long ttlNanos;
+
+    private final CacheEviction eviction;
+
+    private final Map<List<Object>, CacheEntry> entries;
+
+    //only for LFU: keys by frequency, in order of access
+    private final Map<Integer, LinkedHashSet<List<Object>>> frequencies = new HashMap<>();
+
+    private int minFrequency;
+
+    //incremented by every invalidation, a row read before an invalidation is not cached
+    private long version;
+
+    private long hits;
+
+    private long misses;
+
+    private long evictions;
+
+    private long expirations;
+
+    EntityCache(EntityMetadata metadata, int maxSize, long ttlMillis, CacheEviction eviction) {
+        this.metadata = metadata;
+        this.maxSize = maxSize;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.eviction = eviction;
+        this.entries = new LinkedHashMap<>(16, 0.75f, eviction == CacheEviction.LRU);
+    }
+
+    /**
+     * This method create the cache of the vo class
+     *
+     * @param clazz value object class
+     * @return the cache, null if the class doesn't enable it
+     */
+    static EntityCache of(Class<?> clazz) {
+
+        Entity entity = clazz.getAnnotation(Entity.class);
+        if (entity == null || entity.cacheSize() <= 0) {
+            return null;
+        }
+
+        EntityMetadata metadata = EntityMetadata.of(clazz);
+        if (metadata.getPrimaryKeys().isEmpty()) {
+            throw new IllegalStateException("cache of " + clazz.getName() + " needs at least one @Id field");
+        }
+
+        return new EntityCache(metadata, entity.cacheSize(), entity.cacheTtlMillis(), entity.cacheEviction());
+    }
+
+    /**
+     * This method copy the cached row in the vo
+     *
+     * @param voGenerator value object with the primary key set
+     * @return true if the row was in the cache
+     */
+    boolean read(VOGenerator voGenerator) {
+
+        List<Object> key = getKey(voGenerator);
+        Object[] values;
+
+        synchronized (this) {
+            CacheEntry entry = entries.get(key);
+
+            if (entry != null && entry.isExpired(System.nanoTime())) {
+                remove(key);
+                expirations++;
+                entry = null;
+            }
+
+            if (entry == null) {
+                misses++;
+                return false;
+            }
+
+            hits++;
+            if (eviction == CacheEviction.LFU) {
+                touch(key, entry);
+            }
+            values = entry.values;
+        }
+
+        List<FieldMetadata> columns = metadata.getEagerColumns();
+        for (int i = 0; i < columns.size(); i++) {
+            columns.get(i).set(voGenerator, FieldMetadata.copyValue(values[i]));
+        }
+
+        return true;
+    }
+
+    synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * This method save a copy of the columns of the vo read from the database
+     *
+     * @param voGenerator value object read
+     * @param readVersion version of the cache before the read, if the cache was invalidated meanwhile
+     *                    the row can be stale and it isn't saved
+     */
+    void put(VOGenerator voGenerator, long readVersion) {
+
+        List<FieldMetadata> columns = metadata.getEagerColumns();
+        Object[] values = new Object[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+            values[i] = FieldMetadata.copyValue(columns.get(i).get(voGenerator));
+        }
+
+        List<Object> key = getKey(voGenerator);
+        long expireAt = ttlNanos > 0 ? System.nanoTime() + ttlNanos : 0;
+
+        synchronized (this) {
+            if (readVersion != version) {
+                return;
+            }
+            remove(key);
+
+            if (entries.size() >= maxSize) {
+                evict();
+            }
+
+            CacheEntry entry = new CacheEntry(values, expireAt);
+            entries.put(key, entry);
+            if (eviction == CacheEviction.LFU) {
+                frequencies.computeIfAbsent(1, k -> new LinkedHashSet<>()).add(key);
+                minFrequency = 1;
+            }
+        }
+    }
+
+    /**
+     * This method remove the row of the vo from the cache
+     *
+     * @param voGenerator value object with the primary key set
+     */
+    void invalidate(VOGenerator voGenerator) {
+
+        List<Object> key = getKey(voGenerator);
+
+        synchronized (this) {
+            remove(key);
+            version++;
+        }
+    }
+
+    /**
+     * This method remove all the rows, to use after changes not done by the dao
+     */
+    public synchronized void clear() {
+
+        entries.clear();
+        frequencies.clear();
+        minFrequency = 0;
+        version++;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized long getExpirations() {
+        return expirations;
+    }
+
+    public synchronized double getHitRatio() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "EntityCache{" + metadata.getTableName() + " " + eviction + " size=" + entries.size() + "/" + maxSize
+                + ", hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + ", expirations=" + expirations + "}";
+    }
+
+    private List<Object> getKey(VOGenerator voGenerator) {
+
+        List<FieldMetadata> primaryKeys = metadata.getPrimaryKeys();
+        List<Object> key = new ArrayList<>(primaryKeys.size());
+        for (FieldMetadata primaryKey : primaryKeys) {
+            Object value = primaryKey.get(voGenerator);
+            //byte[] has the identity equals, the key uses a list of the bytes
+            if (value instanceof byte[]) {
+                value = toList((byte[]) value);
+            }
+            key.add(value);
+        }
+
+        return key;
+    }
+
+    private static List<Byte> toList(byte[] bytes) {
+
+        Byte[] boxed = new Byte[bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            boxed[i] = bytes[i];
+        }
+
+        return Arrays.asList(boxed);
+    }
+
+    private void remove(List<Object> key) {
+
+        CacheEntry entry = entries.remove(key);
+        if (entry != null && eviction == CacheEviction.LFU) {
+            LinkedHashSet<List<Object>> keys = frequencies.get(entry.frequency);
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                frequencies.remove(entry.frequency);
+            }
+        }
+    }
+
+    private void touch(List<Object> key, CacheEntry entry) {
+
+        LinkedHashSet<List<Object>> keys = frequencies.get(entry.frequency);
+        keys.remove(key);
+        if (keys.isEmpty()) {
+            frequencies.remove(entry.frequency);
+            if (minFrequency == entry.frequency) {
+                minFrequency++;
+            }
+        }
+
+        entry.frequency++;
+        frequencies.computeIfAbsent(entry.frequency, k -> new LinkedHashSet<>()).add(key);
+    }
+
+    private void evict() {
+
+        List<Object> victim;
+
+        if (eviction == CacheEviction.LFU) {
+            LinkedHashSet<List<Object>> keys = frequencies.get(minFrequency);
+            if (keys == null) {
+                //minFrequency is stale after a remove, find the lowest frequency
+                minFrequency = frequencies.keySet().stream().min(Integer::compare).orElse(0);
+                keys = frequencies.get(minFrequency);
+            }
+            if (keys == null) {
+                return;
+            }
+            victim = keys.iterator().next();
+
+        } else {
+            Iterator<List<Object>> iterator = entries.keySet().iterator();
+            if (!iterator.hasNext()) {
+                return;
+            }
+            victim = iterator.next();
+        }
+
+        remove(victim);
+        evictions++;
+    }
+
+    private static final class CacheEntry {
+
+        private final Object[] values;
+
+        private final long expireAt;
+
+        private int frequency = 1;
+
+        private CacheEntry(Object[] values, long expireAt) {
+            this.values = values;
+            this.expireAt = expireAt;
+        }
+
+        private boolean isExpired(long now) {
+            return expireAt != 0 && now - expireAt >= 0;
+        }
+    }
+}
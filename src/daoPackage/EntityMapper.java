@@ -0,0 +1,49 @@
+package daoPackage;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Mapper of a vo generated at compile time by processorPackage.EntityProcessor (class VOXXX_Mapper in the package of the vo).
+ * When the mapper is present DAOGenerator uses its statements and its binders instead of the reflective metadata
+ *
+ * @param <T> value object class
+ */
+public interface EntityMapper<T> {
+
+    String getInsertStatement();
+
+    String getUpdateStatement();
+
+    String getDeleteStatement();
+
+    /**
+     * @return SELECT of all the columns, in the order read by map, without the where condition
+     */
+    String getSelectStatement();
+
+    String getReadByPrimaryKeyStatement();
+
+    /**
+     * This method bind all the columns, in the order of the insert statement
+     */
+    void bindInsert(PreparedStatement ps, T vo) throws SQLException;
+
+    /**
+     * This method bind all the columns and then the primary key, in the order of the update statement
+     */
+    void bindUpdate(PreparedStatement ps, T vo) throws SQLException;
+
+    /**
+     * This method bind the primary key from the first parameter
+     */
+    void bindPrimaryKey(PreparedStatement ps, T vo) throws SQLException;
+
+    /**
+     * This method write the columns of the current row (read by index) in the vo
+     */
+    void map(ResultSet rs, T vo) throws SQLException;
+
+    T newInstance();
+}
@@ -0,0 +1,59 @@
+package daoPackage;
+
+import voPackage.EntityMetadata;
+
+import java.util.Optional;
+import java.util.logging.Logger;
+
+/**
+ * Lookup of the mapper generated at compile time for a vo class, the lookup is done once per class.
+ * Without that mapper, when EntityMetadata.setAccessorGeneration(true), the mapper is generated at runtime by MapperGenerator
+ */
+final class EntityMappers {
+
+    static final String MAPPER_SUFFIX = "_Mapper";
+
+    private static final Logger logger = Logger.getLogger(EntityMappers.class.getName());
+
+    private static final ClassValue<Optional<EntityMapper<Object>>> cache = new ClassValue<Optional<EntityMapper<Object>>>() {
+        @Override
+        protected Optional<EntityMapper<Object>> computeValue(Class<?> type) {
+            return Optional.ofNullable(load(type));
+        }
+    };
+
+    private EntityMappers() {
+    }
+
+    /**
+     * This method get the generated mapper of the vo class
+     *
+     * @param clazz value object class
+     * @return the mapper or null if it wasn't generated at compile time or at runtime
+     */
+    static EntityMapper<Object> of(Class<?> clazz) {
+
+        return cache.get(clazz).orElse(null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static EntityMapper<Object> load(Class<?> clazz) {
+
+        try {
+            Class<?> mapperClass = Class.forName(clazz.getName() + MAPPER_SUFFIX, true, clazz.getClassLoader());
+            if (!EntityMapper.class.isAssignableFrom(mapperClass)) {
+                return null;
+            }
+            logger.info("USING GENERATED MAPPER " + mapperClass.getName());
+
+            return (EntityMapper<Object>) mapperClass.getDeclaredConstructor().newInstance();
+
+        } catch (ClassNotFoundException e) {
+            return EntityMetadata.isAccessorGeneration() ? MapperGenerator.generate(clazz) : null;
+
+        } catch (ReflectiveOperationException | LinkageError e) {
+            logger.info("GENERATED MAPPER OF " + clazz.getName() + " NOT USABLE: " + e.getMessage());
+            return null;
+        }
+    }
+}
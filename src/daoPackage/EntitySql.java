@@ -0,0 +1,560 @@
+package daoPackage;
+
+import voPackage.EntityMetadata;
+import voPackage.FieldMetadata;
+
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Parameterized CRUD statements of a vo class. The text is generated once per entity
+ * and the values are always bound on the PreparedStatement, so the database can reuse the parsed cursor
+ */
+final class EntitySql {
+
+    private static final ClassValue<EntitySql> cache = new ClassValue<EntitySql>() {
+        @Override
+        protected EntitySql computeValue(Class<?> type) {
+            return new EntitySql(EntityMetadata.of(type));
+        }
+    };
+
+    private final EntityMetadata metadata;
+
+    private final EntityMapper<Object> mapper;
+
+    private final String insertStatement;
+
+    //null for a vo without primary key
+    private final String updateStatement;
+
+    private final String deleteStatement;
+
+    private final String readByPrimaryKeyStatement;
+
+    private final String selectStatement;
+
+    //by dialect and the @Column(lazy = true) columns updated
+    private final Map<List<Object>, String> upsertStatements = new ConcurrentHashMap<>();
+
+    private EntitySql(EntityMetadata metadata) {
+
+        this.metadata = metadata;
+        this.mapper = EntityMappers.of(metadata.getEntityClass());
+
+        if (mapper != null) {
+            this.insertStatement = mapper.getInsertStatement();
+            this.updateStatement = mapper.getUpdateStatement();
+            this.deleteStatement = mapper.getDeleteStatement();
+            this.readByPrimaryKeyStatement = mapper.getReadByPrimaryKeyStatement();
+            this.selectStatement = mapper.getSelectStatement();
+        } else {
+            boolean hasPrimaryKey = !metadata.getPrimaryKeys().isEmpty();
+            this.insertStatement = getInsertStatement(metadata);
+            this.updateStatement = hasPrimaryKey ? getUpdateStatement(metadata) : null;
+            this.deleteStatement = hasPrimaryKey ? getDeleteStatement(metadata) : null;
+            this.readByPrimaryKeyStatement = hasPrimaryKey ? getReadByPrimaryKeyStatement(metadata) : null;
+            this.selectStatement = getSelectStatement(metadata);
+        }
+    }
+
+    static EntitySql of(Class<?> clazz) {
+
+        return cache.get(clazz);
+    }
+
+    EntityMetadata getMetadata() {
+        return metadata;
+    }
+
+    /**
+     * @return the mapper generated at compile time or null
+     */
+    EntityMapper<Object> getMapper() {
+        return mapper;
+    }
+
+    String getInsertStatement() {
+        return insertStatement;
+    }
+
+    String getUpdateStatement() {
+        checkPrimaryKey();
+        return updateStatement;
+    }
+
+    /**
+     * This method get the update of some columns of the row
+     *
+     * @param columns columns to write
+     * @return update statement, the values of the columns are bound before the primary key
+     */
+    String getUpdateStatement(List<FieldMetadata> columns) {
+        return getUpdateStatement(metadata, columns);
+    }
+
+    String getDeleteStatement() {
+        checkPrimaryKey();
+        return deleteStatement;
+    }
+
+    String getReadByPrimaryKeyStatement() {
+        checkPrimaryKey();
+        return readByPrimaryKeyStatement;
+    }
+
+    /**
+     * The statements by primary key are not built for a vo without @Id, the vo can still be inserted and selected
+     */
+    private void checkPrimaryKey() {
+
+        if (metadata.getPrimaryKeys().isEmpty()) {
+            throw new IllegalStateException("VO " + metadata.getEntityClass().getSimpleName() + " HASN'T PRIMARY KEY");
+        }
+    }
+
+    /**
+     * This method get the select of many rows by primary key
+     *
+     * @param keys number of keys
+     * @return select statement, the values of the primary key are bound key by key
+     */
+    String getReadByPrimaryKeysStatement(int keys) {
+
+        List<FieldMetadata> pkColumns = metadata.getPrimaryKeys();
+
+        if (pkColumns.isEmpty()) {
+            throw new IllegalStateException("VO " + metadata.getEntityClass().getSimpleName() + " HASN'T PRIMARY KEY");
+        }
+
+        StringBuilder builder = new StringBuilder(selectStatement);
+        builder.append(" WHERE ");
+
+        String placeholder;
+        if (pkColumns.size() == 1) {
+            builder.append(pkColumns.get(0).getColumnName());
+            placeholder = "?";
+
+        } else {
+            StringBuilder tuple = new StringBuilder("(");
+            builder.append("(");
+            for (int k = 0; k < pkColumns.size(); k++) {
+                builder.append(pkColumns.get(k).getColumnName());
+                tuple.append("?");
+                if (k < pkColumns.size() - 1) {
+                    builder.append(", ");
+                    tuple.append(", ");
+                }
+            }
+            builder.append(")");
+            tuple.append(")");
+            placeholder = tuple.toString();
+        }
+
+        builder.append(" IN (");
+        for (int i = 0; i < keys; i++) {
+            builder.append(placeholder);
+            if (i < keys - 1) {
+                builder.append(", ");
+            }
+        }
+        builder.append(")");
+
+        return builder.toString();
+    }
+
+    /**
+     * This method get the select of a page ordered by primary key, after the key of the previous page.
+     * The composite key is expanded as A >= ? AND (A > ? OR (A = ? AND B > ?)) because oracle has no
+     * comparison of row values, the first condition lets the database seek on the index
+     *
+     * @param dialect dialect of the database
+     * @param first   true for the first page (no key)
+     * @return select statement, the values of the key are bound as many times as they appear, the number of rows at the end
+     */
+    String getPageStatement(SqlDialect dialect, boolean first) {
+
+        List<FieldMetadata> pkColumns = metadata.getPrimaryKeys();
+
+        if (pkColumns.isEmpty()) {
+            throw new IllegalStateException("VO " + metadata.getEntityClass().getSimpleName() + " HASN'T PRIMARY KEY");
+        }
+
+        StringBuilder builder = new StringBuilder(selectStatement);
+
+        if (!first) {
+            builder.append(" WHERE ");
+            if (pkColumns.size() == 1) {
+                builder.append(pkColumns.get(0).getColumnName()).append(" > ?");
+
+            } else {
+                builder.append(pkColumns.get(0).getColumnName()).append(" >= ? AND (");
+                for (int k = 0; k < pkColumns.size(); k++) {
+                    if (k > 0) {
+                        builder.append(" OR ");
+                    }
+                    builder.append("(");
+                    for (int e = 0; e < k; e++) {
+                        builder.append(pkColumns.get(e).getColumnName()).append(" = ? AND ");
+                    }
+                    builder.append(pkColumns.get(k).getColumnName()).append(" > ?)");
+                }
+                builder.append(")");
+            }
+        }
+
+        builder.append(" ORDER BY ");
+        for (int k = 0; k < pkColumns.size(); k++) {
+            builder.append(pkColumns.get(k).getColumnName());
+            if (k < pkColumns.size() - 1) {
+                builder.append(", ");
+            }
+        }
+
+        if (dialect == SqlDialect.MYSQL) {
+            builder.append(" LIMIT ?");
+        } else {
+            builder.append(" FETCH FIRST ? ROWS ONLY");
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * This method get the insert or update of the row in a single statement:
+     * MERGE INTO ... USING DUAL for oracle, INSERT ... ON DUPLICATE KEY UPDATE for mysql.
+     * The insert writes all the columns, the update writes the @Column(lazy = true) columns only when they are in lazyColumns
+     *
+     * @param dialect     dialect of the database
+     * @param lazyColumns lazy columns set in the vo, in the order of the metadata
+     * @return upsert statement, the values of all the columns are bound in order
+     */
+    String getUpsertStatement(SqlDialect dialect, List<FieldMetadata> lazyColumns) throws SQLFeatureNotSupportedException {
+
+        if (dialect == SqlDialect.OTHER) {
+            throw new SQLFeatureNotSupportedException("UPSERT IS SUPPORTED ONLY FOR ORACLE AND MYSQL");
+        }
+
+        List<Object> key = new ArrayList<>(lazyColumns.size() + 1);
+        key.add(dialect);
+        key.addAll(lazyColumns);
+
+        return upsertStatements.computeIfAbsent(key, k -> dialect == SqlDialect.ORACLE
+                ? getMergeStatement(metadata, lazyColumns)
+                : getInsertOnDuplicateKeyStatement(metadata, lazyColumns));
+    }
+
+    /**
+     * This method get the insert of many rows in a single statement:
+     * INSERT ALL INTO ... SELECT 1 FROM DUAL for oracle, INSERT ... VALUES (...), (...) for the others
+     *
+     * @param dialect dialect of the database
+     * @param rows    number of rows
+     * @return insert statement, the values of the columns are bound row by row
+     */
+    String getMultiRowInsertStatement(SqlDialect dialect, int rows) {
+
+        List<FieldMetadata> columns = metadata.getColumns();
+
+        StringBuilder columnList = new StringBuilder();
+        StringBuilder values = new StringBuilder();
+        columnList.append(" (");
+        values.append("(");
+        for (int i = 0; i < columns.size(); i++) {
+            columnList.append(columns.get(i).getColumnName());
+            values.append("?");
+            if (i < columns.size() - 1) {
+                columnList.append(",");
+                values.append(",");
+            }
+        }
+        columnList.append(")");
+        values.append(")");
+
+        StringBuilder builder = new StringBuilder();
+
+        if (dialect == SqlDialect.ORACLE) {
+            builder.append("INSERT ALL");
+            for (int r = 0; r < rows; r++) {
+                builder.append(" INTO ")
+                        .append(metadata.getTableName())
+                        .append(columnList)
+                        .append(" VALUES ")
+                        .append(values);
+            }
+            builder.append(" SELECT 1 FROM DUAL");
+
+        } else {
+            builder.append("INSERT INTO ")
+                    .append(metadata.getTableName())
+                    .append(columnList)
+                    .append(" VALUES ");
+            for (int r = 0; r < rows; r++) {
+                builder.append(values);
+                if (r < rows - 1) {
+                    builder.append(", ");
+                }
+            }
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * This method get the select of the table with the optional where condition
+     *
+     * @param where condition without the WHERE keyword, it can contain ORDER BY (null or empty for all the rows)
+     * @return select statement
+     */
+    String getSelectStatement(String where) {
+
+        if (where == null || where.trim().isEmpty()) {
+            return selectStatement;
+        }
+        return selectStatement + " WHERE " + where;
+    }
+
+    /**
+     * This method get the read by primary key of only some columns
+     *
+     * @param columns columns to select
+     * @return select statement
+     */
+    String getReadByPrimaryKeyStatement(List<FieldMetadata> columns) {
+
+        return "SELECT " +
+                getColumnList(columns) +
+                " FROM " +
+                metadata.getTableName() +
+                getWhereCondition(metadata);
+    }
+
+    /**
+     * This method get the select of only some columns with the optional where condition
+     *
+     * @param columns columns to select
+     * @param where   condition without the WHERE keyword, it can contain ORDER BY (null or empty for all the rows)
+     * @return select statement
+     */
+    String getSelectStatement(List<FieldMetadata> columns, String where) {
+
+        String select = "SELECT " + getColumnList(columns) + " FROM " + metadata.getTableName();
+        if (where == null || where.trim().isEmpty()) {
+            return select;
+        }
+        return select + " WHERE " + where;
+    }
+
+    static String getInsertStatement(EntityMetadata metadata) {
+
+        List<FieldMetadata> columns = metadata.getColumns();
+
+        StringBuilder builder = new StringBuilder();
+
+        builder.append("INSERT INTO ").append(metadata.getTableName()).append(" (");
+
+        for (int i = 0; i < columns.size(); i++) {
+            builder.append(columns.get(i).getColumnName());
+            if (i < columns.size() - 1) {
+                builder.append(",");
+            }
+        }
+
+        builder.append(") ")
+                .append("VALUES (");
+
+        for (int i = 0; i < columns.size(); i++) {
+            builder.append("?");
+            if (i < columns.size() - 1) {
+                builder.append(",");
+            }
+        }
+        builder.append(")");
+
+        return builder.toString();
+    }
+
+    static String getSelectStatement(EntityMetadata metadata) {
+
+        return "SELECT " + getColumnList(metadata.getEagerColumns()) + " FROM " + metadata.getTableName();
+    }
+
+    static String getReadByPrimaryKeyStatement(EntityMetadata metadata) {
+
+        return "SELECT " +
+                getColumnList(metadata.getEagerColumns()) +
+                " FROM " +
+                metadata.getTableName() +
+                getWhereCondition(metadata);
+    }
+
+    static String getColumnList(List<FieldMetadata> columns) {
+
+        StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; i < columns.size(); i++) {
+            builder.append(columns.get(i).getColumnName());
+            if (i < columns.size() - 1) {
+                builder.append(", ");
+            }
+        }
+
+        return builder.toString();
+    }
+
+    static String getDeleteStatement(EntityMetadata metadata) {
+
+        return "DELETE FROM " +
+                metadata.getTableName() +
+                getWhereCondition(metadata);
+    }
+
+    static String getUpdateStatement(EntityMetadata metadata) {
+
+        return getUpdateStatement(metadata, metadata.getEagerColumns());
+    }
+
+    private static String getUpdateStatement(EntityMetadata metadata, List<FieldMetadata> columns) {
+
+        StringBuilder builder = new StringBuilder();
+
+        builder.append("UPDATE ")
+                .append(metadata.getTableName())
+                .append(" SET ");
+
+        for (int i = 0; i < columns.size(); i++) {
+            builder.append(columns.get(i).getColumnName())
+                    .append(" = ?");
+
+            if (i < columns.size() - 1) {
+                builder.append(",");
+            }
+        }
+
+        builder.append(getWhereCondition(metadata));
+
+        return builder.toString();
+    }
+
+    private static String getMergeStatement(EntityMetadata metadata, List<FieldMetadata> lazyColumns) {
+
+        List<FieldMetadata> columns = metadata.getColumns();
+        List<FieldMetadata> pkColumns = metadata.getPrimaryKeys();
+
+        if (pkColumns.isEmpty()) {
+            throw new IllegalStateException("VO " + metadata.getEntityClass().getSimpleName() + " HASN'T PRIMARY KEY");
+        }
+
+        StringBuilder builder = new StringBuilder();
+
+        builder.append("MERGE INTO ")
+                .append(metadata.getTableName())
+                .append(" t USING (SELECT ");
+        for (int i = 0; i < columns.size(); i++) {
+            builder.append("? AS ").append(columns.get(i).getColumnName());
+            if (i < columns.size() - 1) {
+                builder.append(", ");
+            }
+        }
+        builder.append(" FROM DUAL) s ON (");
+
+        for (int k = 0; k < pkColumns.size(); k++) {
+            String columnName = pkColumns.get(k).getColumnName();
+            builder.append("t.").append(columnName).append(" = s.").append(columnName);
+            if (k < pkColumns.size() - 1) {
+                builder.append(" AND ");
+            }
+        }
+        builder.append(")");
+
+        boolean first = true;
+        for (FieldMetadata column : columns) {
+            if (column.isId() || column.isLazy() && !lazyColumns.contains(column)) {
+                continue;
+            }
+            builder.append(first ? " WHEN MATCHED THEN UPDATE SET " : ", ")
+                    .append("t.").append(column.getColumnName())
+                    .append(" = s.").append(column.getColumnName());
+            first = false;
+        }
+
+        builder.append(" WHEN NOT MATCHED THEN INSERT (");
+        for (int i = 0; i < columns.size(); i++) {
+            builder.append(columns.get(i).getColumnName());
+            if (i < columns.size() - 1) {
+                builder.append(",");
+            }
+        }
+        builder.append(") VALUES (");
+        for (int i = 0; i < columns.size(); i++) {
+            builder.append("s.").append(columns.get(i).getColumnName());
+            if (i < columns.size() - 1) {
+                builder.append(",");
+            }
+        }
+        builder.append(")");
+
+        return builder.toString();
+    }
+
+    private static String getInsertOnDuplicateKeyStatement(EntityMetadata metadata, List<FieldMetadata> lazyColumns) {
+
+        List<FieldMetadata> columns = metadata.getColumns();
+
+        if (metadata.getPrimaryKeys().isEmpty()) {
+            throw new IllegalStateException("VO " + metadata.getEntityClass().getSimpleName() + " HASN'T PRIMARY KEY");
+        }
+
+        StringBuilder builder = new StringBuilder(getInsertStatement(metadata));
+        builder.append(" ON DUPLICATE KEY UPDATE ");
+
+        boolean first = true;
+        for (FieldMetadata column : columns) {
+            if (column.isId() || column.isLazy() && !lazyColumns.contains(column)) {
+                continue;
+            }
+            if (!first) {
+                builder.append(", ");
+            }
+            builder.append(column.getColumnName())
+                    .append(" = VALUES(")
+                    .append(column.getColumnName())
+                    .append(")");
+            first = false;
+        }
+
+        //only primary key columns: the existing row is left as it is
+        if (first) {
+            String columnName = metadata.getPrimaryKeys().get(0).getColumnName();
+            builder.append(columnName).append(" = ").append(columnName);
+        }
+
+        return builder.toString();
+    }
+
+    static String getWhereCondition(EntityMetadata metadata) {
+
+        List<FieldMetadata> pkColumns = metadata.getPrimaryKeys();
+
+        if (pkColumns.isEmpty()) {
+            throw new IllegalStateException("VO " + metadata.getEntityClass().getSimpleName() + " HASN'T PRIMARY KEY");
+        }
+
+        StringBuilder whereCondition = new StringBuilder();
+        whereCondition.append(" WHERE ");
+
+        for (int k = 0; k < pkColumns.size(); k++) {
+            whereCondition.append(pkColumns.get(k).getColumnName())
+                    .append(" = ?");
+
+            if (k < pkColumns.size() - 1) {
+                whereCondition.append(" AND ");
+            }
+        }
+
+        return whereCondition.toString();
+    }
+}
@@ -0,0 +1,234 @@
+package daoPackage;
+
+import voPackage.FieldMetadata;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * Off-heap buffers of one column for a block of rows of the columnar export.
+ * The fixed width values are written at the offset of the row, the variable width values are appended
+ * to the data buffer and the offset of the end of every row is kept; the buffers are reused for every block
+ */
+final class ExportColumn {
+
+    enum Kind {
+        INT(1, 4), LONG(2, 8), SHORT(3, 2), BYTE(4, 1), DOUBLE(5, 8), FLOAT(6, 4), BOOLEAN(7, 1),
+        TIMESTAMP(8, 8), STRING(9, 0), BINARY(10, 0), DECIMAL(11, 0);
+
+        private final int code;
+
+        //0 for the variable width
+        private final int width;
+
+        Kind(int code, int width) {
+            this.code = code;
+            this.width = width;
+        }
+
+        int getCode() {
+            return code;
+        }
+
+        boolean isVariable() {
+            return width == 0;
+        }
+
+        static Kind of(Class<?> type) {
+
+            if (type == int.class || type == Integer.class) {
+                return INT;
+            } else if (type == long.class || type == Long.class) {
+                return LONG;
+            } else if (type == short.class || type == Short.class) {
+                return SHORT;
+            } else if (type == byte.class || type == Byte.class) {
+                return BYTE;
+            } else if (type == double.class || type == Double.class) {
+                return DOUBLE;
+            } else if (type == float.class || type == Float.class) {
+                return FLOAT;
+            } else if (type == boolean.class || type == Boolean.class) {
+                return BOOLEAN;
+            } else if (java.util.Date.class.isAssignableFrom(type)) {
+                return TIMESTAMP;
+            } else if (type == byte[].class) {
+                return BINARY;
+            } else if (type == BigDecimal.class) {
+                return DECIMAL;
+            }
+            return STRING;
+        }
+    }
+
+    private final String name;
+
+    private final Kind kind;
+
+    //index of the column in the select
+    private final int index;
+
+    private final ByteBuffer nulls;
+
+    //values of the fixed width, offsets of rows + 1 of the variable width
+    private final ByteBuffer values;
+
+    private ByteBuffer data;
+
+    ExportColumn(FieldMetadata field, int index, int blockRows) {
+
+        this.name = field.getColumnName();
+        this.kind = Kind.of(field.getType());
+        this.index = index;
+        this.nulls = ByteBuffer.allocateDirect((blockRows + 7) / 8);
+        if (kind.isVariable()) {
+            this.values = ByteBuffer.allocateDirect((blockRows + 1) * 4).order(ByteOrder.LITTLE_ENDIAN);
+            this.data = ByteBuffer.allocateDirect(blockRows * 16);
+        } else {
+            this.values = ByteBuffer.allocateDirect(blockRows * kind.width).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        reset();
+    }
+
+    String getName() {
+        return name;
+    }
+
+    Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * This method copy the column of the current row in the buffers
+     *
+     * @param rs  result set positioned on the row
+     * @param row index of the row in the block
+     */
+    void read(ResultSet rs, int row) throws SQLException {
+
+        boolean isNull;
+
+        switch (kind) {
+            case INT:
+                values.putInt(row * 4, rs.getInt(index));
+                isNull = rs.wasNull();
+                break;
+            case LONG:
+                values.putLong(row * 8, rs.getLong(index));
+                isNull = rs.wasNull();
+                break;
+            case SHORT:
+                values.putShort(row * 2, rs.getShort(index));
+                isNull = rs.wasNull();
+                break;
+            case BYTE:
+                values.put(row, rs.getByte(index));
+                isNull = rs.wasNull();
+                break;
+            case DOUBLE:
+                values.putDouble(row * 8, rs.getDouble(index));
+                isNull = rs.wasNull();
+                break;
+            case FLOAT:
+                values.putFloat(row * 4, rs.getFloat(index));
+                isNull = rs.wasNull();
+                break;
+            case BOOLEAN:
+                values.put(row, (byte) (rs.getBoolean(index) ? 1 : 0));
+                isNull = rs.wasNull();
+                break;
+            case TIMESTAMP:
+                Timestamp timestamp = rs.getTimestamp(index);
+                values.putLong(row * 8, timestamp == null ? 0 : timestamp.getTime());
+                isNull = timestamp == null;
+                break;
+            case BINARY:
+                byte[] bytes = rs.getBytes(index);
+                isNull = bytes == null;
+                if (!isNull) {
+                    ensureCapacity(bytes.length);
+                    data.put(bytes);
+                }
+                values.putInt((row + 1) * 4, data.position());
+                break;
+            case DECIMAL:
+                BigDecimal decimal = rs.getBigDecimal(index);
+                isNull = decimal == null;
+                if (!isNull) {
+                    putUtf8(decimal.toPlainString());
+                }
+                values.putInt((row + 1) * 4, data.position());
+                break;
+            default:
+                String text = rs.getString(index);
+                isNull = text == null;
+                if (!isNull) {
+                    putUtf8(text);
+                }
+                values.putInt((row + 1) * 4, data.position());
+                break;
+        }
+
+        if (isNull) {
+            nulls.put(row >> 3, (byte) (nulls.get(row >> 3) | 1 << (row & 7)));
+        }
+    }
+
+    /**
+     * This method write the rows of the block and empty the buffers for the next block
+     *
+     * @param sink destination
+     * @param rows number of rows of the block
+     */
+    void write(TableExporter.Sink sink, int rows) throws IOException {
+
+        nulls.limit((rows + 7) / 8);
+        sink.write(nulls);
+
+        values.limit(kind.isVariable() ? (rows + 1) * 4 : rows * kind.width);
+        sink.write(values);
+
+        if (kind.isVariable()) {
+            data.flip();
+            sink.write(data);
+        }
+
+        reset();
+    }
+
+    private void reset() {
+
+        nulls.clear();
+        for (int i = 0; i < nulls.capacity(); i++) {
+            nulls.put(i, (byte) 0);
+        }
+        values.clear();
+        if (data != null) {
+            data.clear();
+            values.putInt(0, 0);
+        }
+    }
+
+    private void putUtf8(String text) {
+
+        ensureCapacity(text.length() * 3);
+        TableExporter.putUtf8(data, text, 0, text.length());
+    }
+
+    private void ensureCapacity(int length) {
+
+        if (data.remaining() >= length) {
+            return;
+        }
+
+        ByteBuffer larger = ByteBuffer.allocateDirect(Math.max(data.capacity() * 2, data.position() + length));
+        data.flip();
+        larger.put(data);
+        data = larger;
+    }
+}
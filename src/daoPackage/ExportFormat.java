@@ -0,0 +1,24 @@
+package daoPackage;
+
+/**
+ * Format of the file written by TableExporter
+ */
+public enum ExportFormat {
+
+    /**
+     * Text with the header of the column names, the values separated by comma and the rows by \n.
+     * The null values are empty, the texts with comma, quote or new line are quoted, the binaries are hex
+     */
+    CSV,
+
+    /**
+     * Binary columnar file, little endian:
+     * magic "VOCOLS01", int column count, for every column short name length, UTF-8 name, byte type code;
+     * then the blocks: int row count, for every column the null bitmap (bit set = null, one byte every 8 rows)
+     * and the values (fixed width) or int offsets of rows + 1 and the bytes (variable width);
+     * at the end int 0 and long total rows.
+     * Type codes: 1 int, 2 long, 3 short, 4 byte, 5 double, 6 float, 7 boolean (1 byte), 8 timestamp (long epoch millis),
+     * 9 string (UTF-8), 10 binary, 11 decimal (UTF-8 plain string); 9, 10 and 11 have variable width
+     */
+    COLUMNAR
+}
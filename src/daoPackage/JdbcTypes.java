@@ -0,0 +1,340 @@
+package daoPackage;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.sql.Blob;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.Calendar;
+import java.util.Currency;
+import java.util.GregorianCalendar;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.UUID;
+
+/**
+ * Conversion between the java types supported in the vo (see SqlTypes.getSqlType) and the JDBC api.
+ * It is public for the mappers generated by processorPackage.EntityProcessor
+ */
+public final class JdbcTypes {
+
+    private JdbcTypes() {
+    }
+
+    /**
+     * This method bind the value on the statement with the setter of its type
+     *
+     * @param ps    prepared statement
+     * @param index index of the parameter
+     * @param value value to bind
+     * @param type  java type of the vo field, used to bind the null values
+     */
+    public static void bind(PreparedStatement ps, int index, Object value, Class<?> type) throws SQLException {
+
+        if (value == null) {
+            ps.setNull(index, getSqlType(type));
+
+        } else if (value instanceof String) {
+            ps.setString(index, (String) value);
+        } else if (value instanceof Integer) {
+            ps.setInt(index, (Integer) value);
+        } else if (value instanceof Long) {
+            ps.setLong(index, (Long) value);
+        } else if (value instanceof BigDecimal) {
+            ps.setBigDecimal(index, (BigDecimal) value);
+        } else if (value instanceof Timestamp) {
+            ps.setTimestamp(index, (Timestamp) value);
+        } else if (value instanceof java.sql.Date) {
+            ps.setDate(index, (java.sql.Date) value);
+        } else if (value instanceof Time) {
+            ps.setTime(index, (Time) value);
+        } else if (value instanceof java.util.Date) {
+            ps.setTimestamp(index, new Timestamp(((java.util.Date) value).getTime()));
+        } else if (value instanceof Short) {
+            ps.setShort(index, (Short) value);
+        } else if (value instanceof Byte) {
+            ps.setByte(index, (Byte) value);
+        } else if (value instanceof Float) {
+            ps.setFloat(index, (Float) value);
+        } else if (value instanceof Double) {
+            ps.setDouble(index, (Double) value);
+        } else if (value instanceof Boolean) {
+            ps.setInt(index, (Boolean) value ? 1 : 0);
+        } else if (value instanceof Character) {
+            ps.setString(index, value.toString());
+        } else if (value instanceof Enum) {
+            ps.setString(index, ((Enum<?>) value).name());
+        } else if (value instanceof LocalDate) {
+            ps.setDate(index, java.sql.Date.valueOf((LocalDate) value));
+        } else if (value instanceof LocalDateTime) {
+            ps.setTimestamp(index, Timestamp.valueOf((LocalDateTime) value));
+        } else if (value instanceof LocalTime) {
+            ps.setTime(index, Time.valueOf((LocalTime) value));
+        } else if (value instanceof Instant) {
+            ps.setTimestamp(index, Timestamp.from((Instant) value));
+        } else if (value instanceof Calendar) {
+            ps.setTimestamp(index, new Timestamp(((Calendar) value).getTimeInMillis()), (Calendar) value);
+        } else if (value instanceof OffsetDateTime) {
+            ps.setObject(index, value);
+        } else if (value instanceof ZonedDateTime) {
+            ps.setObject(index, ((ZonedDateTime) value).toOffsetDateTime());
+        } else if (value instanceof BigInteger) {
+            ps.setBigDecimal(index, new BigDecimal((BigInteger) value));
+        } else if (value instanceof byte[]) {
+            ps.setBytes(index, (byte[]) value);
+        } else if (value instanceof UUID) {
+            ps.setBytes(index, toBytes((UUID) value));
+        } else if (value instanceof URL) {
+            ps.setString(index, ((URL) value).toExternalForm());
+        } else if (value instanceof Currency) {
+            ps.setString(index, ((Currency) value).getCurrencyCode());
+        } else if (value instanceof Locale) {
+            ps.setString(index, ((Locale) value).toLanguageTag());
+        } else if (value instanceof TimeZone) {
+            ps.setString(index, ((TimeZone) value).getID());
+        } else if (value instanceof Blob) {
+            ps.setBlob(index, (Blob) value);
+        } else {
+            ps.setObject(index, value);
+        }
+    }
+
+    /**
+     * This method get the JDBC type used to bind a null value of the java type
+     *
+     * @param type java type of the vo field
+     * @return constant of java.sql.Types
+     */
+    public static int getSqlType(Class<?> type) {
+
+        if (type == String.class || type.isEnum() || type == URL.class || type == Locale.class
+                || type == TimeZone.class || type == Currency.class) {
+            return Types.VARCHAR;
+        } else if (type == char.class || type == Character.class) {
+            return Types.CHAR;
+        } else if (type == byte.class || type == Byte.class || type == short.class || type == Short.class
+                || type == int.class || type == Integer.class || type == long.class || type == Long.class
+                || type == boolean.class || type == Boolean.class
+                || type == BigDecimal.class || type == BigInteger.class) {
+            return Types.NUMERIC;
+        } else if (type == float.class || type == Float.class) {
+            return Types.FLOAT;
+        } else if (type == double.class || type == Double.class) {
+            return Types.DOUBLE;
+        } else if (type == java.sql.Date.class || type == LocalDate.class) {
+            return Types.DATE;
+        } else if (java.util.Date.class.isAssignableFrom(type) || Calendar.class.isAssignableFrom(type)
+                || type == LocalDateTime.class || type == LocalTime.class || type == Instant.class) {
+            return Types.TIMESTAMP;
+        } else if (type == OffsetDateTime.class || type == ZonedDateTime.class) {
+            return Types.TIMESTAMP_WITH_TIMEZONE;
+        } else if (type == byte[].class || type == UUID.class) {
+            return Types.VARBINARY;
+        } else if (Blob.class.isAssignableFrom(type)) {
+            return Types.BLOB;
+        }
+
+        return Types.VARCHAR;
+    }
+
+    /**
+     * This method get the reader of the column with the getter of the java type of the field.
+     * For the wrapper types the SQL NULL is read as null, for the primitive types as the default value
+     *
+     * @param type java type of the vo field
+     * @return reader of the column
+     */
+    public static ColumnReader getReader(Class<?> type) {
+
+        if (type == String.class) {
+            return ResultSet::getString;
+        } else if (type == int.class) {
+            return ResultSet::getInt;
+        } else if (type == Integer.class) {
+            return (rs, i) -> {
+                int value = rs.getInt(i);
+                return rs.wasNull() ? null : value;
+            };
+        } else if (type == long.class) {
+            return ResultSet::getLong;
+        } else if (type == Long.class) {
+            return (rs, i) -> {
+                long value = rs.getLong(i);
+                return rs.wasNull() ? null : value;
+            };
+        } else if (type == BigDecimal.class) {
+            return ResultSet::getBigDecimal;
+        } else if (type == Timestamp.class) {
+            return ResultSet::getTimestamp;
+        } else if (type == java.sql.Date.class) {
+            return ResultSet::getDate;
+        } else if (type == Time.class) {
+            return ResultSet::getTime;
+        } else if (type == java.util.Date.class) {
+            return (rs, i) -> {
+                Timestamp value = rs.getTimestamp(i);
+                return value == null ? null : new java.util.Date(value.getTime());
+            };
+        } else if (type == short.class) {
+            return ResultSet::getShort;
+        } else if (type == Short.class) {
+            return (rs, i) -> {
+                short value = rs.getShort(i);
+                return rs.wasNull() ? null : value;
+            };
+        } else if (type == byte.class) {
+            return ResultSet::getByte;
+        } else if (type == Byte.class) {
+            return (rs, i) -> {
+                byte value = rs.getByte(i);
+                return rs.wasNull() ? null : value;
+            };
+        } else if (type == float.class) {
+            return ResultSet::getFloat;
+        } else if (type == Float.class) {
+            return (rs, i) -> {
+                float value = rs.getFloat(i);
+                return rs.wasNull() ? null : value;
+            };
+        } else if (type == double.class) {
+            return ResultSet::getDouble;
+        } else if (type == Double.class) {
+            return (rs, i) -> {
+                double value = rs.getDouble(i);
+                return rs.wasNull() ? null : value;
+            };
+        } else if (type == boolean.class) {
+            return (rs, i) -> rs.getInt(i) != 0;
+        } else if (type == Boolean.class) {
+            return (rs, i) -> {
+                int value = rs.getInt(i);
+                return rs.wasNull() ? null : value != 0;
+            };
+        } else if (type == char.class || type == Character.class) {
+            final boolean primitive = type.isPrimitive();
+            return (rs, i) -> {
+                String value = rs.getString(i);
+                if (value == null || value.isEmpty()) {
+                    return primitive ? Character.MIN_VALUE : null;
+                }
+                return value.charAt(0);
+            };
+        } else if (type.isEnum()) {
+            return (rs, i) -> {
+                String value = rs.getString(i);
+                return value == null ? null : toEnum(type, value);
+            };
+        } else if (type == LocalDate.class) {
+            return (rs, i) -> {
+                java.sql.Date value = rs.getDate(i);
+                return value == null ? null : value.toLocalDate();
+            };
+        } else if (type == LocalDateTime.class) {
+            return (rs, i) -> {
+                Timestamp value = rs.getTimestamp(i);
+                return value == null ? null : value.toLocalDateTime();
+            };
+        } else if (type == LocalTime.class) {
+            return (rs, i) -> {
+                Timestamp value = rs.getTimestamp(i);
+                return value == null ? null : value.toLocalDateTime().toLocalTime();
+            };
+        } else if (type == Instant.class) {
+            return (rs, i) -> {
+                Timestamp value = rs.getTimestamp(i);
+                return value == null ? null : value.toInstant();
+            };
+        } else if (Calendar.class.isAssignableFrom(type)) {
+            return (rs, i) -> {
+                Timestamp value = rs.getTimestamp(i);
+                if (value == null) {
+                    return null;
+                }
+                Calendar calendar = new GregorianCalendar();
+                calendar.setTimeInMillis(value.getTime());
+                return calendar;
+            };
+        } else if (type == OffsetDateTime.class) {
+            return (rs, i) -> rs.getObject(i, OffsetDateTime.class);
+        } else if (type == ZonedDateTime.class) {
+            return (rs, i) -> {
+                OffsetDateTime value = rs.getObject(i, OffsetDateTime.class);
+                return value == null ? null : value.toZonedDateTime();
+            };
+        } else if (type == BigInteger.class) {
+            return (rs, i) -> {
+                BigDecimal value = rs.getBigDecimal(i);
+                return value == null ? null : value.toBigInteger();
+            };
+        } else if (type == byte[].class) {
+            return ResultSet::getBytes;
+        } else if (type == UUID.class) {
+            return (rs, i) -> {
+                byte[] value = rs.getBytes(i);
+                return value == null ? null : toUUID(value);
+            };
+        } else if (type == URL.class) {
+            return (rs, i) -> {
+                String value = rs.getString(i);
+                try {
+                    return value == null ? null : new URL(value);
+                } catch (MalformedURLException e) {
+                    throw new SQLException("wrong url in column " + i + ": " + value, e);
+                }
+            };
+        } else if (type == Currency.class) {
+            return (rs, i) -> {
+                String value = rs.getString(i);
+                return value == null ? null : Currency.getInstance(value.trim());
+            };
+        } else if (type == Locale.class) {
+            return (rs, i) -> {
+                String value = rs.getString(i);
+                return value == null ? null : Locale.forLanguageTag(value);
+            };
+        } else if (type == TimeZone.class) {
+            return (rs, i) -> {
+                String value = rs.getString(i);
+                return value == null ? null : TimeZone.getTimeZone(value);
+            };
+        } else if (Blob.class.isAssignableFrom(type)) {
+            return ResultSet::getBlob;
+        }
+
+        return ResultSet::getObject;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object toEnum(Class<?> type, String value) {
+        return Enum.valueOf((Class<? extends Enum>) type, value);
+    }
+
+    static UUID toUUID(byte[] bytes) {
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    static byte[] toBytes(UUID uuid) {
+
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.putLong(uuid.getMostSignificantBits());
+        buffer.putLong(uuid.getLeastSignificantBits());
+
+        return buffer.array();
+    }
+}
@@ -0,0 +1,692 @@
+package daoPackage;
+
+import voPackage.EntityMetadata;
+import voPackage.FieldMetadata;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Generator at runtime of the mapper of a vo without the mapper generated at compile time, enabled with
+ * EntityMetadata.setAccessorGeneration(true). It writes the bytecode of the class that processorPackage.EntityProcessor
+ * writes as source (VOXXX_Mapper): one EntityMapper per entity, defined in the package of the vo with
+ * MethodHandles.Lookup.defineClass, whose binders and row mapper call the JDBC setter/getter of the type and read/write
+ * the fields directly or with the getter/setter. The code of the methods has no branches: the types without a JDBC
+ * setter/getter go through JdbcTypes as in the generated source.
+ * The class is not generated, and the dao keeps the reflective accessors, for a vo without @Id, for a private or final field
+ * without getter/setter and for a field whose type isn't visible from the package of the vo
+ */
+final class MapperGenerator {
+
+    private static final Logger logger = Logger.getLogger(MapperGenerator.class.getName());
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_PRIVATE = 0x0002;
+    private static final int ACC_STATIC = 0x0008;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+
+    private static final int ICONST_0 = 0x03;
+    private static final int BIPUSH = 0x10;
+    private static final int SIPUSH = 0x11;
+    private static final int LDC_W = 0x13;
+    private static final int ALOAD_0 = 0x2a;
+    private static final int ALOAD_1 = 0x2b;
+    private static final int ALOAD_2 = 0x2c;
+    private static final int ALOAD_3 = 0x2d;
+    private static final int ASTORE_3 = 0x4e;
+    private static final int POP = 0x57;
+    private static final int POP2 = 0x58;
+    private static final int DUP = 0x59;
+    private static final int ARETURN = 0xb0;
+    private static final int RETURN = 0xb1;
+    private static final int GETSTATIC = 0xb2;
+    private static final int PUTSTATIC = 0xb3;
+    private static final int GETFIELD = 0xb4;
+    private static final int PUTFIELD = 0xb5;
+    private static final int INVOKEVIRTUAL = 0xb6;
+    private static final int INVOKESPECIAL = 0xb7;
+    private static final int INVOKESTATIC = 0xb8;
+    private static final int INVOKEINTERFACE = 0xb9;
+    private static final int NEW = 0xbb;
+    private static final int CHECKCAST = 0xc0;
+
+    private static final String PREPARED_STATEMENT = "java/sql/PreparedStatement";
+    private static final String RESULT_SET = "java/sql/ResultSet";
+    private static final String COLUMN_READER = "daoPackage/ColumnReader";
+    private static final String COLUMN_READER_DESCRIPTOR = "L" + COLUMN_READER + ";";
+
+    private final EntityMetadata metadata;
+
+    private final Class<?> entityClass;
+
+    private final String voName;
+
+    private final String mapperName;
+
+    private final Map<FieldMetadata, Access> accesses = new HashMap<>();
+
+    private final List<Class<?>> readerTypes = new ArrayList<>();
+
+    private final ConstantPool pool = new ConstantPool();
+
+    private MapperGenerator(EntityMetadata metadata) {
+
+        this.metadata = metadata;
+        this.entityClass = metadata.getEntityClass();
+        this.voName = entityClass.getName().replace('.', '/');
+        this.mapperName = voName + EntityMappers.MAPPER_SUFFIX;
+    }
+
+    /**
+     * This method generate and load the mapper of the vo class
+     *
+     * @param clazz value object class
+     * @return the mapper or null if it can't be generated
+     */
+    @SuppressWarnings("unchecked")
+    static EntityMapper<Object> generate(Class<?> clazz) {
+
+        EntityMetadata metadata = EntityMetadata.of(clazz);
+        if (metadata.getPrimaryKeys().isEmpty()) {
+            return null;
+        }
+
+        try {
+            MapperGenerator generator = new MapperGenerator(metadata);
+            byte[] bytes = generator.toBytes();
+
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(clazz, MethodHandles.lookup());
+            Class<?> mapperClass;
+            try {
+                mapperClass = lookup.defineClass(bytes);
+            } catch (LinkageError e) {
+                //defined meanwhile by another thread
+                mapperClass = lookup.findClass(generator.mapperName.replace('/', '.'));
+            }
+            logger.info("USING RUNTIME MAPPER " + mapperClass.getName());
+
+            return (EntityMapper<Object>) mapperClass.getDeclaredConstructor().newInstance();
+
+        } catch (IllegalArgumentException e) {
+            logger.info("MAPPER OF " + clazz.getName() + " NOT GENERATED, USING REFLECTION: " + e.getMessage());
+            return null;
+
+        } catch (ReflectiveOperationException | IOException | RuntimeException | LinkageError e) {
+            logger.info("MAPPER OF " + clazz.getName() + " NOT GENERATED, USING REFLECTION: " + e);
+            return null;
+        }
+    }
+
+    private byte[] toBytes() throws IOException {
+
+        for (FieldMetadata column : metadata.getColumns()) {
+            accesses.put(column, getAccess(column));
+        }
+
+        List<byte[]> methods = new ArrayList<>();
+        methods.add(method(ACC_PUBLIC, "<init>", "()V", constructor(), 1));
+        if (!readerTypes.isEmpty()) {
+            methods.add(method(ACC_STATIC, "<clinit>", "()V", staticInitializer(), 0));
+        }
+        methods.add(method(ACC_PUBLIC, "getInsertStatement", "()Ljava/lang/String;", constant(EntitySql.getInsertStatement(metadata)), 1));
+        methods.add(method(ACC_PUBLIC, "getUpdateStatement", "()Ljava/lang/String;", constant(EntitySql.getUpdateStatement(metadata)), 1));
+        methods.add(method(ACC_PUBLIC, "getDeleteStatement", "()Ljava/lang/String;", constant(EntitySql.getDeleteStatement(metadata)), 1));
+        methods.add(method(ACC_PUBLIC, "getSelectStatement", "()Ljava/lang/String;", constant(EntitySql.getSelectStatement(metadata)), 1));
+        methods.add(method(ACC_PUBLIC, "getReadByPrimaryKeyStatement", "()Ljava/lang/String;",
+                constant(EntitySql.getReadByPrimaryKeyStatement(metadata)), 1));
+
+        List<FieldMetadata> updateColumns = new ArrayList<>(metadata.getEagerColumns());
+        updateColumns.addAll(metadata.getPrimaryKeys());
+
+        String bindDescriptor = "(L" + PREPARED_STATEMENT + ";Ljava/lang/Object;)V";
+        methods.add(method(ACC_PUBLIC, "bindInsert", bindDescriptor, binder(metadata.getColumns()), 4));
+        methods.add(method(ACC_PUBLIC, "bindUpdate", bindDescriptor, binder(updateColumns), 4));
+        methods.add(method(ACC_PUBLIC, "bindPrimaryKey", bindDescriptor, binder(metadata.getPrimaryKeys()), 4));
+        methods.add(method(ACC_PUBLIC, "map", "(L" + RESULT_SET + ";Ljava/lang/Object;)V", rowMapper(), 4));
+        methods.add(method(ACC_PUBLIC, "newInstance", "()Ljava/lang/Object;", newInstance(), 1));
+
+        int thisClass = pool.classRef(mapperName);
+        int superClass = pool.classRef("java/lang/Object");
+        int mapperInterface = pool.classRef("daoPackage/EntityMapper");
+        int readerName = pool.utf8(COLUMN_READER_DESCRIPTOR);
+        List<Integer> readerFields = new ArrayList<>();
+        for (int i = 0; i < readerTypes.size(); i++) {
+            readerFields.add(pool.utf8("READER_" + i));
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        out.writeInt(0xCAFEBABE);
+        out.writeShort(0);
+        //java 11
+        out.writeShort(55);
+        pool.write(out);
+        out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+        out.writeShort(thisClass);
+        out.writeShort(superClass);
+        out.writeShort(1);
+        out.writeShort(mapperInterface);
+
+        out.writeShort(readerFields.size());
+        for (int nameIndex : readerFields) {
+            out.writeShort(ACC_PRIVATE | ACC_STATIC | ACC_FINAL);
+            out.writeShort(nameIndex);
+            out.writeShort(readerName);
+            out.writeShort(0);
+        }
+
+        out.writeShort(methods.size());
+        for (byte[] method : methods) {
+            out.write(method);
+        }
+        out.writeShort(0);
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * This method find how the generated class reads and writes the field, like the source of EntityProcessor:
+     * directly if the field isn't private, otherwise with the getter/setter
+     */
+    private Access getAccess(FieldMetadata column) {
+
+        Field field;
+        try {
+            field = entityClass.getDeclaredField(column.getFieldName());
+        } catch (NoSuchFieldException e) {
+            throw new IllegalArgumentException("field " + column.getFieldName() + " not found");
+        }
+
+        Class<?> type = field.getType();
+        if (!isVisible(type)) {
+            throw new IllegalArgumentException("the type of the field " + field.getName() + " isn't visible from the vo");
+        }
+
+        Access access = new Access(type);
+
+        if (Modifier.isPrivate(field.getModifiers()) || Modifier.isFinal(field.getModifiers())) {
+            String name = field.getName();
+            boolean booleanPrefix = type == boolean.class && name.length() > 2 && name.startsWith("is")
+                    && Character.isUpperCase(name.charAt(2));
+            String property = booleanPrefix ? name.substring(2) : Character.toUpperCase(name.charAt(0)) + name.substring(1);
+
+            access.getter = findMethod(booleanPrefix ? name : (type == boolean.class ? "is" : "get") + property);
+            access.setter = findMethod("set" + property, type);
+            if (access.getter == null || access.getter.getReturnType() != type || access.setter == null) {
+                throw new IllegalArgumentException("the field " + name + " is private and hasn't getter/setter");
+            }
+        }
+
+        if (getResultSetGetter(type) == null) {
+            access.reader = readerTypes.size();
+            readerTypes.add(type);
+        }
+
+        return access;
+    }
+
+    private Method findMethod(String name, Class<?>... parameterTypes) {
+
+        try {
+            Method method = entityClass.getDeclaredMethod(name, parameterTypes);
+            return Modifier.isStatic(method.getModifiers()) || Modifier.isPrivate(method.getModifiers()) ? null : method;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private boolean isVisible(Class<?> type) {
+
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        if (type.isPrimitive()) {
+            return true;
+        }
+
+        int modifiers = type.getModifiers();
+        if (Modifier.isPrivate(modifiers)
+                || !Modifier.isPublic(modifiers) && !type.getPackageName().equals(entityClass.getPackageName())) {
+            return false;
+        }
+        return type.getEnclosingClass() == null || isVisible(type.getEnclosingClass());
+    }
+
+    private byte[] constructor() {
+
+        Code code = new Code();
+        code.op(ALOAD_0);
+        code.op(INVOKESPECIAL, pool.member(10, "java/lang/Object", "<init>", "()V"));
+        code.op(RETURN);
+
+        return code.toBytes();
+    }
+
+    private byte[] staticInitializer() {
+
+        Code code = new Code();
+        for (int i = 0; i < readerTypes.size(); i++) {
+            pushClass(code, readerTypes.get(i));
+            code.op(INVOKESTATIC, pool.member(10, "daoPackage/JdbcTypes", "getReader", "(Ljava/lang/Class;)" + COLUMN_READER_DESCRIPTOR));
+            code.op(PUTSTATIC, pool.member(9, mapperName, "READER_" + i, COLUMN_READER_DESCRIPTOR));
+        }
+        code.op(RETURN);
+
+        return code.toBytes();
+    }
+
+    private byte[] constant(String value) {
+
+        Code code = new Code();
+        code.op(LDC_W, pool.string(value));
+        code.op(ARETURN);
+
+        return code.toBytes();
+    }
+
+    /**
+     * This method write the bind of the columns from the first parameter: ps.setXxx(index, vo.field)
+     */
+    private byte[] binder(List<FieldMetadata> columns) {
+
+        Code code = new Code();
+        code.op(ALOAD_2);
+        code.op(CHECKCAST, pool.classRef(voName));
+        code.op(ASTORE_3);
+
+        int index = 1;
+        for (FieldMetadata column : columns) {
+            Access access = accesses.get(column);
+            Class<?> type = access.type;
+
+            code.op(ALOAD_1);
+            code.push(index++);
+            code.op(ALOAD_3);
+            if (access.getter == null) {
+                code.op(GETFIELD, pool.member(9, voName, column.getFieldName(), descriptor(type)));
+            } else {
+                code.op(INVOKEVIRTUAL, pool.member(10, voName, access.getter.getName(), "()" + descriptor(type)));
+            }
+
+            String setter = getStatementSetter(type);
+            if (setter != null) {
+                //the boolean is already 0 or 1 on the stack, as setInt(index, value ? 1 : 0)
+                String valueDescriptor = type == boolean.class ? "I" : descriptor(type);
+                code.invokeInterface(pool.member(11, PREPARED_STATEMENT, setter, "(I" + valueDescriptor + ")V"),
+                        2 + slots(type));
+            } else {
+                if (type.isPrimitive()) {
+                    Class<?> wrapper = wrap(type);
+                    code.op(INVOKESTATIC, pool.member(10, internalName(wrapper), "valueOf",
+                            "(" + descriptor(type) + ")" + descriptor(wrapper)));
+                }
+                pushClass(code, type);
+                code.op(INVOKESTATIC, pool.member(10, "daoPackage/JdbcTypes", "bind",
+                        "(L" + PREPARED_STATEMENT + ";ILjava/lang/Object;Ljava/lang/Class;)V"));
+            }
+        }
+        code.op(RETURN);
+
+        return code.toBytes();
+    }
+
+    /**
+     * This method write the map of the eager columns, read by index: vo.field = rs.getXxx(index)
+     */
+    private byte[] rowMapper() {
+
+        Code code = new Code();
+        code.op(ALOAD_2);
+        code.op(CHECKCAST, pool.classRef(voName));
+        code.op(ASTORE_3);
+
+        int index = 1;
+        for (FieldMetadata column : metadata.getEagerColumns()) {
+            Access access = accesses.get(column);
+            Class<?> type = access.type;
+
+            code.op(ALOAD_3);
+            if (access.reader < 0) {
+                code.op(ALOAD_1);
+                code.push(index++);
+                code.invokeInterface(pool.member(11, RESULT_SET, getResultSetGetter(type), "(I)" + descriptor(type)), 2);
+            } else {
+                code.op(GETSTATIC, pool.member(9, mapperName, "READER_" + access.reader, COLUMN_READER_DESCRIPTOR));
+                code.op(ALOAD_1);
+                code.push(index++);
+                code.invokeInterface(pool.member(11, COLUMN_READER, "read", "(L" + RESULT_SET + ";I)Ljava/lang/Object;"), 3);
+                Class<?> boxed = wrap(type);
+                code.op(CHECKCAST, pool.classRef(internalName(boxed)));
+                if (type.isPrimitive()) {
+                    code.op(INVOKEVIRTUAL, pool.member(10, internalName(boxed), type.getName() + "Value", "()" + descriptor(type)));
+                }
+            }
+
+            if (access.setter == null) {
+                code.op(PUTFIELD, pool.member(9, voName, column.getFieldName(), descriptor(type)));
+            } else {
+                Class<?> returnType = access.setter.getReturnType();
+                code.op(INVOKEVIRTUAL, pool.member(10, voName, access.setter.getName(),
+                        "(" + descriptor(type) + ")" + descriptor(returnType)));
+                //es: the fluent setters
+                if (returnType != void.class) {
+                    code.op(slots(returnType) == 2 ? POP2 : POP);
+                }
+            }
+        }
+        code.op(RETURN);
+
+        return code.toBytes();
+    }
+
+    private byte[] newInstance() {
+
+        Code code = new Code();
+
+        boolean accessibleConstructor;
+        try {
+            accessibleConstructor = !Modifier.isAbstract(entityClass.getModifiers())
+                    && !Modifier.isPrivate(entityClass.getDeclaredConstructor().getModifiers());
+        } catch (NoSuchMethodException e) {
+            accessibleConstructor = false;
+        }
+
+        if (accessibleConstructor) {
+            code.op(NEW, pool.classRef(voName));
+            code.op(DUP);
+            code.op(INVOKESPECIAL, pool.member(10, voName, "<init>", "()V"));
+        } else {
+            //the metadata throws the error of the vo without no-args constructor
+            code.op(LDC_W, pool.classRef(voName));
+            code.op(INVOKESTATIC, pool.member(10, "voPackage/EntityMetadata", "of", "(Ljava/lang/Class;)LvoPackage/EntityMetadata;"));
+            code.op(INVOKEVIRTUAL, pool.member(10, "voPackage/EntityMetadata", "newInstance", "()Ljava/lang/Object;"));
+        }
+        code.op(ARETURN);
+
+        return code.toBytes();
+    }
+
+    private byte[] method(int access, String name, String descriptor, byte[] code, int maxLocals) throws IOException {
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        out.writeShort(access);
+        out.writeShort(pool.utf8(name));
+        out.writeShort(pool.utf8(descriptor));
+        out.writeShort(1);
+
+        out.writeShort(pool.utf8("Code"));
+        out.writeInt(12 + code.length);
+        //the deepest stack is ps, index, long value and class
+        out.writeShort(6);
+        out.writeShort(maxLocals);
+        out.writeInt(code.length);
+        out.write(code);
+        out.writeShort(0);
+        out.writeShort(0);
+
+        return bytes.toByteArray();
+    }
+
+    private void pushClass(Code code, Class<?> type) {
+
+        if (type.isPrimitive()) {
+            code.op(GETSTATIC, pool.member(9, internalName(wrap(type)), "TYPE", "Ljava/lang/Class;"));
+        } else {
+            code.op(LDC_W, pool.classRef(internalName(type)));
+        }
+    }
+
+    /**
+     * @return the setter of PreparedStatement used by the generated source for the type, null for JdbcTypes.bind
+     */
+    private static String getStatementSetter(Class<?> type) {
+
+        if (type == int.class || type == boolean.class) {
+            return "setInt";
+        } else if (type == long.class) {
+            return "setLong";
+        } else if (type == short.class) {
+            return "setShort";
+        } else if (type == byte.class) {
+            return "setByte";
+        } else if (type == float.class) {
+            return "setFloat";
+        } else if (type == double.class) {
+            return "setDouble";
+        }
+        return getReferenceSuffix(type) == null ? null : "set" + getReferenceSuffix(type);
+    }
+
+    /**
+     * @return the getter of ResultSet used by the generated source for the type, null for the ColumnReader
+     */
+    private static String getResultSetGetter(Class<?> type) {
+
+        if (type == int.class) {
+            return "getInt";
+        } else if (type == long.class) {
+            return "getLong";
+        } else if (type == short.class) {
+            return "getShort";
+        } else if (type == byte.class) {
+            return "getByte";
+        } else if (type == float.class) {
+            return "getFloat";
+        } else if (type == double.class) {
+            return "getDouble";
+        }
+        return getReferenceSuffix(type) == null ? null : "get" + getReferenceSuffix(type);
+    }
+
+    private static String getReferenceSuffix(Class<?> type) {
+
+        if (type == String.class) {
+            return "String";
+        } else if (type == BigDecimal.class) {
+            return "BigDecimal";
+        } else if (type == Timestamp.class) {
+            return "Timestamp";
+        } else if (type == java.sql.Date.class) {
+            return "Date";
+        } else if (type == byte[].class) {
+            return "Bytes";
+        }
+        return null;
+    }
+
+    private static Class<?> wrap(Class<?> type) {
+
+        if (!type.isPrimitive()) {
+            return type;
+        }
+        return MethodType.methodType(type).wrap().returnType();
+    }
+
+    private static int slots(Class<?> type) {
+        return type == long.class || type == double.class ? 2 : 1;
+    }
+
+    private static String internalName(Class<?> type) {
+        return type.isArray() ? descriptor(type) : type.getName().replace('.', '/');
+    }
+
+    private static String descriptor(Class<?> type) {
+
+        if (type == void.class) {
+            return "V";
+        } else if (type == int.class) {
+            return "I";
+        } else if (type == long.class) {
+            return "J";
+        } else if (type == short.class) {
+            return "S";
+        } else if (type == byte.class) {
+            return "B";
+        } else if (type == float.class) {
+            return "F";
+        } else if (type == double.class) {
+            return "D";
+        } else if (type == boolean.class) {
+            return "Z";
+        } else if (type == char.class) {
+            return "C";
+        } else if (type.isArray()) {
+            return "[" + descriptor(type.getComponentType());
+        }
+        return "L" + type.getName().replace('.', '/') + ";";
+    }
+
+    /**
+     * Access to a vo field from the generated class, getter and setter are null for the direct access
+     */
+    private static final class Access {
+
+        private final Class<?> type;
+
+        private Method getter;
+
+        private Method setter;
+
+        //index of the static READER_n, -1 for a getter of the ResultSet
+        private int reader = -1;
+
+        private Access(Class<?> type) {
+            this.type = type;
+        }
+    }
+
+    /**
+     * Bytecode of a method without branches
+     */
+    private static final class Code {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        private void op(int opcode) {
+            bytes.write(opcode);
+        }
+
+        private void op(int opcode, int index) {
+            bytes.write(opcode);
+            bytes.write(index >> 8);
+            bytes.write(index);
+        }
+
+        private void invokeInterface(int index, int argumentSlots) {
+            op(INVOKEINTERFACE, index);
+            bytes.write(argumentSlots);
+            bytes.write(0);
+        }
+
+        private void push(int value) {
+
+            if (value <= 5) {
+                bytes.write(ICONST_0 + value);
+            } else if (value <= Byte.MAX_VALUE) {
+                bytes.write(BIPUSH);
+                bytes.write(value);
+            } else if (value <= Short.MAX_VALUE) {
+                op(SIPUSH, value);
+            } else {
+                throw new IllegalArgumentException("too many columns");
+            }
+        }
+
+        private byte[] toBytes() {
+            return bytes.toByteArray();
+        }
+    }
+
+    /**
+     * Constant pool of the class, every constant is written once
+     */
+    private static final class ConstantPool {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        private final DataOutputStream out = new DataOutputStream(bytes);
+
+        private final Map<String, Integer> indexes = new HashMap<>();
+
+        private int count = 1;
+
+        private int utf8(String value) {
+
+            Integer index = indexes.get("1:" + value);
+            if (index != null) {
+                return index;
+            }
+            try {
+                out.writeByte(1);
+                out.writeUTF(value);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            return add("1:" + value);
+        }
+
+        private int classRef(String internalName) {
+            return reference(7, internalName, utf8(internalName), -1);
+        }
+
+        private int string(String value) {
+            return reference(8, value, utf8(value), -1);
+        }
+
+        /**
+         * @param tag 9 field, 10 method, 11 interface method
+         */
+        private int member(int tag, String owner, String name, String descriptor) {
+
+            int nameAndType = reference(12, name + ":" + descriptor, utf8(name), utf8(descriptor));
+            return reference(tag, owner + "." + name + ":" + descriptor, classRef(owner), nameAndType);
+        }
+
+        private int reference(int tag, String value, int first, int second) {
+
+            String key = tag + ":" + value;
+            Integer index = indexes.get(key);
+            if (index != null) {
+                return index;
+            }
+            bytes.write(tag);
+            bytes.write(first >> 8);
+            bytes.write(first);
+            if (second >= 0) {
+                bytes.write(second >> 8);
+                bytes.write(second);
+            }
+            return add(key);
+        }
+
+        private int add(String key) {
+
+            indexes.put(key, count);
+            return count++;
+        }
+
+        private void write(DataOutputStream classOut) throws IOException {
+
+            out.flush();
+            classOut.writeShort(count);
+            bytes.writeTo(classOut);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package daoPackage;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Page of rows read by DAOGenerator.page, ordered by primary key.
+ * The next page is read with the key of the last row, so every page costs the same also deep in the table
+ */
+public final class Page<T> {
+
+    private final List<T> items;
+
+    private final Object nextKey;
+
+    Page(List<T> items, Object nextKey) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextKey = nextKey;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * @return the key to pass as afterKey for the next page (value of the @Id, List of the values for a composite
+     * primary key), null if this is the last page
+     */
+    public Object getNextKey() {
+        return nextKey;
+    }
+
+    public boolean hasNext() {
+        return nextKey != null;
+    }
+
+    @Override
+    public String toString() {
+        return "Page{items=" + items.size() + ", nextKey=" + nextKey + "}";
+    }
+}
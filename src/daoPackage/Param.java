@@ -0,0 +1,17 @@
+package daoPackage;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Name of the parameter of a @Query method, used for the :name placeholders of the query.
+ * Not needed if the classes are compiled with -parameters
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.PARAMETER)
+public @interface Param {
+
+    String value();
+}
@@ -0,0 +1,277 @@
+package daoPackage;
+
+import voPackage.EntityMetadata;
+import voPackage.FieldMetadata;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mapper of the columns of a vo on a projection, built once per entity and projection.
+ * The projection is a record (the components) or an interface (the getters getX/isX/x()), every property
+ * is the @Column with the same field name or column name. Only the columns of the projection are selected
+ */
+final class ProjectionMapper {
+
+    private static final ClassValue<Map<Class<?>, ProjectionMapper>> cache = new ClassValue<Map<Class<?>, ProjectionMapper>>() {
+        @Override
+        protected Map<Class<?>, ProjectionMapper> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private final Class<?> projection;
+
+    private final List<FieldMetadata> columns;
+
+    private final String[] propertyNames;
+
+    private final ColumnReader[] readers;
+
+    //canonical constructor of the record, null for an interface
+    private final MethodHandle constructor;
+
+    //property by method of the interface, null for a record
+    private final Map<Method, Integer> propertiesByMethod;
+
+    private ProjectionMapper(EntityMetadata metadata, Class<?> projection) {
+
+        this.projection = projection;
+
+        List<String> names = new ArrayList<>();
+        List<Class<?>> types = new ArrayList<>();
+
+        if (projection.isInterface()) {
+            this.propertiesByMethod = new HashMap<>();
+            for (Method method : projection.getMethods()) {
+                if (method.isDefault() || Modifier.isStatic(method.getModifiers()) || method.getParameterCount() != 0
+                        || method.getReturnType() == void.class) {
+                    continue;
+                }
+                String name = getPropertyName(method.getName());
+                int index = names.indexOf(name);
+                if (index < 0) {
+                    index = names.size();
+                    names.add(name);
+                    types.add(method.getReturnType());
+                }
+                propertiesByMethod.put(method, index);
+            }
+            this.constructor = null;
+
+        } else if (isRecord(projection)) {
+            Class<?>[] componentTypes = getRecordComponents(projection, names);
+            Collections.addAll(types, componentTypes);
+            try {
+                this.constructor = MethodHandles.publicLookup()
+                        .findConstructor(projection, MethodType.methodType(void.class, componentTypes));
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("the record " + projection.getName() + " must be public: " + e.getMessage());
+            }
+            this.propertiesByMethod = null;
+
+        } else {
+            throw new IllegalArgumentException(projection.getName() + " must be a record or an interface");
+        }
+
+        this.propertyNames = names.toArray(new String[0]);
+        this.columns = new ArrayList<>();
+        this.readers = new ColumnReader[propertyNames.length];
+
+        for (int i = 0; i < propertyNames.length; i++) {
+            FieldMetadata column = findColumn(metadata, propertyNames[i]);
+            if (column == null) {
+                throw new IllegalArgumentException("property " + propertyNames[i] + " of " + projection.getSimpleName()
+                        + " is not a @Column of " + metadata.getEntityClass().getSimpleName());
+            }
+            columns.add(column);
+            readers[i] = JdbcTypes.getReader(types.get(i));
+        }
+    }
+
+    static ProjectionMapper of(Class<?> entityClass, Class<?> projection) {
+
+        return cache.get(entityClass).computeIfAbsent(projection, p -> new ProjectionMapper(EntityMetadata.of(entityClass), p));
+    }
+
+    /**
+     * This method find the columns of the vo by field name or column name
+     *
+     * @param metadata   metadata of the vo
+     * @param fieldNames names of the fields or of the columns
+     * @return the columns in the order of the names
+     */
+    static List<FieldMetadata> findColumns(EntityMetadata metadata, String... fieldNames) {
+
+        List<FieldMetadata> found = new ArrayList<>();
+        for (String fieldName : fieldNames) {
+            FieldMetadata column = findColumn(metadata, fieldName);
+            if (column == null) {
+                throw new IllegalArgumentException(fieldName + " is not a @Column of " + metadata.getEntityClass().getSimpleName());
+            }
+            found.add(column);
+        }
+
+        return found;
+    }
+
+    private static FieldMetadata findColumn(EntityMetadata metadata, String name) {
+
+        FieldMetadata column = metadata.getColumn(name);
+        if (column != null) {
+            return column;
+        }
+
+        for (FieldMetadata field : metadata.getColumns()) {
+            if (field.getFieldName().equalsIgnoreCase(name)) {
+                return field;
+            }
+        }
+
+        return null;
+    }
+
+    List<FieldMetadata> getColumns() {
+        return columns;
+    }
+
+    /**
+     * This method build the projection with the columns of the current row, selected in the order of getColumns
+     *
+     * @param rs result set positioned on the row
+     * @return record or proxy of the interface
+     */
+    Object map(ResultSet rs) throws SQLException {
+
+        Object[] values = new Object[readers.length];
+        for (int i = 0; i < readers.length; i++) {
+            values[i] = readers[i].read(rs, i + 1);
+        }
+
+        if (constructor != null) {
+            try {
+                return constructor.invokeWithArguments(values);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("error building " + projection.getName() + ": " + e.getMessage(), e);
+            }
+        }
+
+        return Proxy.newProxyInstance(projection.getClassLoader(), new Class<?>[]{projection}, new ProjectionHandler(values));
+    }
+
+    private Map<String, Object> toMap(Object[] values) {
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < propertyNames.length; i++) {
+            map.put(propertyNames[i], values[i]);
+        }
+
+        return map;
+    }
+
+    private static String getPropertyName(String methodName) {
+
+        String name = methodName;
+        if (name.startsWith("get") && name.length() > 3) {
+            name = name.substring(3);
+        } else if (name.startsWith("is") && name.length() > 2) {
+            name = name.substring(2);
+        }
+
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    /**
+     * The records are read by reflection because the project is compiled for java 11
+     */
+    private static boolean isRecord(Class<?> clazz) {
+
+        try {
+            return (Boolean) Class.class.getMethod("isRecord").invoke(clazz);
+        } catch (ReflectiveOperationException e) {
+            return false;
+        }
+    }
+
+    private static Class<?>[] getRecordComponents(Class<?> clazz, List<String> names) {
+
+        try {
+            Object[] components = (Object[]) Class.class.getMethod("getRecordComponents").invoke(clazz);
+            Class<?>[] types = new Class<?>[components.length];
+
+            for (int i = 0; i < components.length; i++) {
+                Class<?> componentClass = components[i].getClass();
+                names.add((String) componentClass.getMethod("getName").invoke(components[i]));
+                types[i] = (Class<?>) componentClass.getMethod("getType").invoke(components[i]);
+            }
+
+            return types;
+
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("error reading the components of " + clazz.getName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Values of one row for an interface projection
+     */
+    private final class ProjectionHandler implements InvocationHandler {
+
+        private final Object[] values;
+
+        private ProjectionHandler(Object[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+            Integer index = propertiesByMethod.get(method);
+            if (index != null) {
+                return values[index];
+            }
+
+            if (method.isDefault()) {
+                return MethodHandles.privateLookupIn(projection, MethodHandles.lookup())
+                        .unreflectSpecial(method, projection)
+                        .bindTo(proxy)
+                        .invokeWithArguments(args == null ? new Object[0] : args);
+            }
+
+            switch (method.getName()) {
+                case "equals":
+                    return args[0] != null && Proxy.isProxyClass(args[0].getClass())
+                            && Proxy.getInvocationHandler(args[0]) instanceof ProjectionHandler
+                            && ((ProjectionHandler) Proxy.getInvocationHandler(args[0])).getMapper() == ProjectionMapper.this
+                            && Arrays.deepEquals(values, ((ProjectionHandler) Proxy.getInvocationHandler(args[0])).values);
+                case "hashCode":
+                    return Arrays.deepHashCode(values);
+                case "toString":
+                    return projection.getSimpleName() + toMap(values);
+                default:
+                    throw new UnsupportedOperationException(method.getName() + " of " + projection.getName());
+            }
+        }
+
+        private ProjectionMapper getMapper() {
+            return ProjectionMapper.this;
+        }
+    }
+}
@@ -0,0 +1,419 @@
+package daoPackage;
+
+import voPackage.EntityMetadata;
+import voPackage.FieldMetadata;
+import voPackage.VOGenerator;
+
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Method of a dao annotated with @Query or @Method, parsed once.
+ * The :name placeholders of the query are replaced by ? and bound with the arguments of the method
+ * (@Param or the name of the parameter), the result is mapped on the return type:
+ * vo, Optional, List/Collection, Stream of vo or of a single column, a single column value,
+ * int/long/void for insert, update and delete
+ */
+final class QueryMethod {
+
+    enum ResultKind {
+        ENTITY, OPTIONAL, LIST, STREAM, SCALAR, UPDATE_COUNT, VOID
+    }
+
+    private static final Map<java.lang.reflect.Method, QueryMethod> methods = new ConcurrentHashMap<>();
+
+    private static final ClassValue<Map<String, QueryMethod>> methodsByClass = new ClassValue<Map<String, QueryMethod>>() {
+        @Override
+        protected Map<String, QueryMethod> computeValue(Class<?> type) {
+            return findMethods(type);
+        }
+    };
+
+    private final java.lang.reflect.Method method;
+
+    private final String sql;
+
+    private final int[] argumentIndexes;
+
+    private final boolean update;
+
+    private final ResultKind resultKind;
+
+    private final Class<?> elementType;
+
+    private final String delegateName;
+
+    private volatile ResultMapping resultMapping;
+
+    private QueryMethod(java.lang.reflect.Method method) {
+
+        this.method = method;
+
+        Method delegate = method.getAnnotation(Method.class);
+        Query query = method.getAnnotation(Query.class);
+
+        if (delegate != null) {
+            this.delegateName = delegate.methodName();
+            this.sql = null;
+            this.argumentIndexes = null;
+            this.update = false;
+            this.resultKind = null;
+            this.elementType = null;
+            return;
+        }
+
+        this.delegateName = null;
+
+        List<String> names = new ArrayList<>();
+        this.sql = parse(query.value(), names);
+        this.argumentIndexes = getArgumentIndexes(method, names);
+
+        String statement = sql.trim().toUpperCase();
+        this.update = !(statement.startsWith("SELECT") || statement.startsWith("WITH"));
+
+        Class<?> returnType = method.getReturnType();
+        Type genericReturnType = method.getGenericReturnType();
+
+        if (update) {
+            if (returnType == void.class) {
+                this.resultKind = ResultKind.VOID;
+            } else if (returnType == int.class || returnType == Integer.class || returnType == long.class || returnType == Long.class) {
+                this.resultKind = ResultKind.UPDATE_COUNT;
+            } else {
+                throw new IllegalStateException(getName() + ": the update must return int, long or void");
+            }
+            this.elementType = null;
+
+        } else if (returnType == Optional.class) {
+            this.resultKind = ResultKind.OPTIONAL;
+            this.elementType = getTypeArgument(genericReturnType);
+        } else if (returnType == List.class || returnType == Collection.class) {
+            this.resultKind = ResultKind.LIST;
+            this.elementType = getTypeArgument(genericReturnType);
+        } else if (returnType == Stream.class) {
+            this.resultKind = ResultKind.STREAM;
+            this.elementType = getTypeArgument(genericReturnType);
+        } else if (VOGenerator.class.isAssignableFrom(returnType)) {
+            this.resultKind = ResultKind.ENTITY;
+            this.elementType = returnType;
+        } else if (returnType != void.class) {
+            this.resultKind = ResultKind.SCALAR;
+            this.elementType = returnType;
+        } else {
+            throw new IllegalStateException(getName() + ": the select must return a value");
+        }
+    }
+
+    /**
+     * This method get the parsed method
+     *
+     * @param method method annotated with @Query or @Method
+     * @return the parsed method
+     */
+    static QueryMethod of(java.lang.reflect.Method method) {
+
+        return methods.computeIfAbsent(method, QueryMethod::new);
+    }
+
+    /**
+     * This method get the @Query/@Method methods declared by the dao class and its superclasses
+     *
+     * @param daoClass dao class
+     * @return the methods by name
+     */
+    static Map<String, QueryMethod> forClass(Class<?> daoClass) {
+
+        return methodsByClass.get(daoClass);
+    }
+
+    static boolean isAnnotated(java.lang.reflect.Method method) {
+
+        return method.isAnnotationPresent(Query.class) || method.isAnnotationPresent(Method.class);
+    }
+
+    private static Map<String, QueryMethod> findMethods(Class<?> daoClass) {
+
+        Map<String, QueryMethod> found = new HashMap<>();
+
+        for (Class<?> clazz = daoClass; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+            for (java.lang.reflect.Method method : clazz.getDeclaredMethods()) {
+                if (!isAnnotated(method) || Modifier.isStatic(method.getModifiers())) {
+                    continue;
+                }
+                if (found.containsKey(method.getName())) {
+                    if (found.get(method.getName()).method.getDeclaringClass() == clazz) {
+                        throw new IllegalStateException("@Query method " + method.getName() + " of " + daoClass.getName()
+                                + " is overloaded, the names of the query methods must be unique");
+                    }
+                    //overridden in a subclass
+                    continue;
+                }
+                found.put(method.getName(), of(method));
+            }
+        }
+
+        return Collections.unmodifiableMap(found);
+    }
+
+    /**
+     * This method replace the :name placeholders with ?, the text in quotes and the comments are not changed
+     *
+     * @param query sql with named parameters
+     * @param names names of the parameters in order of placeholder
+     * @return sql with ? placeholders
+     */
+    static String parse(String query, List<String> names) {
+
+        StringBuilder builder = new StringBuilder(query.length());
+        boolean positional = false;
+        int length = query.length();
+        int i = 0;
+
+        while (i < length) {
+            char c = query.charAt(i);
+
+            if (c == '\'' || c == '"') {
+                int end = query.indexOf(c, i + 1);
+                end = end < 0 ? length : end + 1;
+                builder.append(query, i, end);
+                i = end;
+
+            } else if (c == '-' && i + 1 < length && query.charAt(i + 1) == '-') {
+                int end = query.indexOf('\n', i);
+                end = end < 0 ? length : end;
+                builder.append(query, i, end);
+                i = end;
+
+            } else if (c == '/' && i + 1 < length && query.charAt(i + 1) == '*') {
+                int end = query.indexOf("*/", i + 2);
+                end = end < 0 ? length : end + 2;
+                builder.append(query, i, end);
+                i = end;
+
+            } else if (c == ':' && i + 1 < length && query.charAt(i + 1) == ':') {
+                builder.append("::");
+                i += 2;
+
+            } else if (c == ':' && i + 1 < length && Character.isJavaIdentifierStart(query.charAt(i + 1))) {
+                int end = i + 1;
+                while (end < length && Character.isJavaIdentifierPart(query.charAt(end))) {
+                    end++;
+                }
+                names.add(query.substring(i + 1, end));
+                builder.append('?');
+                i = end;
+
+            } else {
+                if (c == '?') {
+                    positional = true;
+                }
+                builder.append(c);
+                i++;
+            }
+        }
+
+        if (positional && !names.isEmpty()) {
+            throw new IllegalStateException("the query can't mix ? and :name parameters: " + query);
+        }
+
+        return builder.toString();
+    }
+
+    private static int[] getArgumentIndexes(java.lang.reflect.Method method, List<String> names) {
+
+        Parameter[] parameters = method.getParameters();
+
+        //positional parameters: the arguments in order
+        if (names.isEmpty()) {
+            int[] indexes = new int[parameters.length];
+            for (int i = 0; i < indexes.length; i++) {
+                indexes[i] = i;
+            }
+            return indexes;
+        }
+
+        Map<String, Integer> parameterIndexes = new HashMap<>();
+        for (int i = 0; i < parameters.length; i++) {
+            Param param = parameters[i].getAnnotation(Param.class);
+            if (param != null) {
+                parameterIndexes.put(param.value(), i);
+            } else if (parameters[i].isNamePresent()) {
+                parameterIndexes.put(parameters[i].getName(), i);
+            }
+        }
+
+        int[] indexes = new int[names.size()];
+        for (int i = 0; i < names.size(); i++) {
+            Integer index = parameterIndexes.get(names.get(i));
+            if (index == null) {
+                throw new IllegalStateException(method.getDeclaringClass().getSimpleName() + "." + method.getName()
+                        + ": no parameter for :" + names.get(i) + " (use @Param or compile with -parameters)");
+            }
+            indexes[i] = index;
+        }
+
+        return indexes;
+    }
+
+    private Class<?> getTypeArgument(Type genericType) {
+
+        if (genericType instanceof ParameterizedType) {
+            Type argument = ((ParameterizedType) genericType).getActualTypeArguments()[0];
+            if (argument instanceof Class) {
+                return (Class<?>) argument;
+            }
+            if (argument instanceof ParameterizedType && ((ParameterizedType) argument).getRawType() instanceof Class) {
+                return (Class<?>) ((ParameterizedType) argument).getRawType();
+            }
+        }
+
+        throw new IllegalStateException(getName() + ": the type of the elements of the result must be a class");
+    }
+
+    String getName() {
+        return method.getDeclaringClass().getSimpleName() + "." + method.getName();
+    }
+
+    java.lang.reflect.Method getMethod() {
+        return method;
+    }
+
+    /**
+     * @return the name of the DAOGenerator method called by a @Method, null for a @Query
+     */
+    String getDelegateName() {
+        return delegateName;
+    }
+
+    String getSql() {
+        return sql;
+    }
+
+    boolean isUpdate() {
+        return update;
+    }
+
+    ResultKind getResultKind() {
+        return resultKind;
+    }
+
+    Class<?> getElementType() {
+        return elementType;
+    }
+
+    /**
+     * @return the entity of the result, used to route the connection (null for a scalar or an update)
+     */
+    Class<?> getEntityClass() {
+        return elementType != null && VOGenerator.class.isAssignableFrom(elementType) ? elementType : null;
+    }
+
+    /**
+     * This method get the values to bind in order of placeholder
+     *
+     * @param args arguments of the call
+     * @return values of the parameters
+     */
+    Object[] getParameters(Object[] args) {
+
+        Object[] parameters = new Object[argumentIndexes.length];
+        for (int i = 0; i < argumentIndexes.length; i++) {
+            if (args == null || argumentIndexes[i] >= args.length) {
+                throw new IllegalArgumentException(getName() + " called with " + (args == null ? 0 : args.length) + " arguments");
+            }
+            parameters[i] = args[argumentIndexes[i]];
+        }
+
+        return parameters;
+    }
+
+    /**
+     * This method map the current row on the element type of the result
+     *
+     * @param rs result set positioned on the row
+     * @return vo or value of the first column
+     */
+    Object mapRow(ResultSet rs) throws SQLException {
+
+        ResultMapping mapping = resultMapping;
+        if (mapping == null) {
+            mapping = new ResultMapping(rs.getMetaData(), elementType);
+            resultMapping = mapping;
+        }
+
+        return mapping.map(rs);
+    }
+
+    /**
+     * Columns of the result of the query mapped by label on the fields of the vo, built at the first execution
+     */
+    private static final class ResultMapping {
+
+        private final EntityMetadata metadata;
+
+        private final int[] columnIndexes;
+
+        private final FieldMetadata[] fields;
+
+        private final ColumnReader[] readers;
+
+        private ResultMapping(ResultSetMetaData resultSetMetaData, Class<?> elementType) throws SQLException {
+
+            if (!VOGenerator.class.isAssignableFrom(elementType)) {
+                this.metadata = null;
+                this.columnIndexes = new int[]{1};
+                this.fields = null;
+                this.readers = new ColumnReader[]{JdbcTypes.getReader(elementType)};
+                return;
+            }
+
+            this.metadata = EntityMetadata.of(elementType);
+
+            List<Integer> indexes = new ArrayList<>();
+            List<FieldMetadata> mappedFields = new ArrayList<>();
+            for (int i = 1; i <= resultSetMetaData.getColumnCount(); i++) {
+                FieldMetadata field = metadata.getColumn(resultSetMetaData.getColumnLabel(i));
+                if (field != null) {
+                    indexes.add(i);
+                    mappedFields.add(field);
+                }
+            }
+
+            this.columnIndexes = new int[indexes.size()];
+            this.fields = mappedFields.toArray(new FieldMetadata[0]);
+            this.readers = new ColumnReader[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                columnIndexes[i] = indexes.get(i);
+                readers[i] = JdbcTypes.getReader(fields[i].getType());
+            }
+        }
+
+        private Object map(ResultSet rs) throws SQLException {
+
+            if (metadata == null) {
+                return readers[0].read(rs, 1);
+            }
+
+            Object voGenerator = metadata.newInstance();
+            for (int i = 0; i < fields.length; i++) {
+                fields[i].set(voGenerator, readers[i].read(rs, columnIndexes[i]));
+            }
+
+            return voGenerator;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package daoPackage;
+
+import voPackage.EntityMetadata;
+import voPackage.FieldMetadata;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Mapper of a row on the vo, built once per entity. The columns are read by index
+ * (the select has the explicit list of the columns in the order of the metadata)
+ * with the getter of the type of the field, and written with the cached accessors. The lazy columns are not mapped.
+ * When the vo has a mapper generated at compile time the row is mapped by the generated code
+ */
+final class RowMapper {
+
+    private static final ClassValue<RowMapper> cache = new ClassValue<RowMapper>() {
+        @Override
+        protected RowMapper computeValue(Class<?> type) {
+            return new RowMapper(EntityMetadata.of(type));
+        }
+    };
+
+    private final EntityMetadata metadata;
+
+    private final FieldMetadata[] fields;
+
+    private final ColumnReader[] readers;
+
+    private final EntityMapper<Object> mapper;
+
+    private RowMapper(EntityMetadata metadata) {
+
+        this.metadata = metadata;
+        this.mapper = EntityMappers.of(metadata.getEntityClass());
+
+        List<FieldMetadata> columns = metadata.getEagerColumns();
+        this.fields = columns.toArray(new FieldMetadata[0]);
+        this.readers = new ColumnReader[fields.length];
+
+        for (int i = 0; i < fields.length; i++) {
+            readers[i] = JdbcTypes.getReader(fields[i].getType());
+        }
+    }
+
+    static RowMapper of(Class<?> clazz) {
+
+        return cache.get(clazz);
+    }
+
+    /**
+     * This method write the columns of the current row in the vo
+     *
+     * @param rs          result set positioned on the row
+     * @param voGenerator vo to fill
+     */
+    void map(ResultSet rs, Object voGenerator) throws SQLException {
+
+        if (mapper != null) {
+            mapper.map(rs, voGenerator);
+            return;
+        }
+
+        for (int i = 0; i < fields.length; i++) {
+            fields[i].set(voGenerator, readers[i].read(rs, i + 1));
+        }
+    }
+
+    /**
+     * This method build a new vo with the columns of the current row
+     *
+     * @param rs result set positioned on the row
+     * @return new vo
+     */
+    Object newInstance(ResultSet rs) throws SQLException {
+
+        Object voGenerator = mapper != null ? mapper.newInstance() : metadata.newInstance();
+        map(rs, voGenerator);
+
+        return voGenerator;
+    }
+}
@@ -0,0 +1,43 @@
+package daoPackage;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Family of the database of a connection, used for the statements that are not standard sql (upsert, multi row insert)
+ */
+public enum SqlDialect {
+
+    ORACLE,
+
+    /**
+     * MySQL and MariaDB
+     */
+    MYSQL,
+
+    OTHER;
+
+    /**
+     * This method find the dialect from the product name of the database
+     *
+     * @param con connection to database
+     * @return the dialect of the database
+     */
+    public static SqlDialect of(Connection con) throws SQLException {
+
+        String product = con.getMetaData().getDatabaseProductName();
+        if (product == null) {
+            return OTHER;
+        }
+
+        product = product.toUpperCase();
+        if (product.contains("ORACLE")) {
+            return ORACLE;
+        }
+        if (product.contains("MYSQL") || product.contains("MARIADB")) {
+            return MYSQL;
+        }
+
+        return OTHER;
+    }
+}
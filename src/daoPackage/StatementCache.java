@@ -0,0 +1,172 @@
+package daoPackage;
+
+import connectionPackage.ConnectionPool;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Bounded LRU cache of the PreparedStatement opened on a connection.
+ * When the cache is full the least recently used statement is closed.
+ * The cache of a pooled connection is dropped when the pool closes the connection,
+ * the caches of the other connections when they are found closed
+ */
+final class StatementCache {
+
+    static final int DEFAULT_MAX_SIZE = 64;
+
+    private static final Logger logger = Logger.getLogger(StatementCache.class.getName());
+
+    private static final Map<Connection, StatementCache> caches = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    static {
+        ConnectionPool.addCloseListener(StatementCache::remove);
+    }
+
+    private final Connection connection;
+
+    private final LinkedHashMap<String, PreparedStatement> statements;
+
+    private int maxSize;
+
+    private StatementCache(Connection connection, int maxSize) {
+
+        this.connection = connection;
+        this.maxSize = maxSize;
+        this.statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() > StatementCache.this.maxSize) {
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * This method get the cache of the connection, the cache is created the first time.
+     * A pooled connection is unwrapped, so the statements stay with the physical connection between two borrows.
+     * The cache is shared by all the DAO using the connection, so its size is the largest size requested
+     *
+     * @param connection connection to database
+     * @param maxSize    max number of statements kept open
+     * @return cache of the connection
+     */
+    static StatementCache forConnection(Connection connection, int maxSize) throws SQLException {
+
+        if (connection.isWrapperFor(Connection.class)) {
+            connection = connection.unwrap(Connection.class);
+        }
+
+        synchronized (caches) {
+            StatementCache cache = caches.get(connection);
+            if (cache == null) {
+                purgeClosedConnections();
+                cache = new StatementCache(connection, maxSize);
+                caches.put(connection, cache);
+            }
+            cache.resize(maxSize);
+            return cache;
+        }
+    }
+
+    /**
+     * This method get an open statement for the sql, reusing the cached one if present
+     *
+     * @param sql parameterized statement
+     * @return prepared statement with cleared parameters
+     */
+    synchronized PreparedStatement prepare(String sql) throws SQLException {
+
+        PreparedStatement ps = statements.get(sql);
+
+        if (ps != null && !ps.isClosed()) {
+            ps.clearParameters();
+            return ps;
+        }
+
+        ps = connection.prepareStatement(sql);
+        statements.put(sql, ps);
+
+        return ps;
+    }
+
+    /**
+     * This method remove and close the statement, it is used when the statement fails
+     *
+     * @param sql parameterized statement
+     */
+    synchronized void evict(String sql) {
+
+        PreparedStatement ps = statements.remove(sql);
+        if (ps != null) {
+            closeQuietly(ps);
+        }
+    }
+
+    private synchronized void resize(int maxSize) {
+
+        if (maxSize > this.maxSize) {
+            this.maxSize = maxSize;
+        }
+    }
+
+    /**
+     * This method drop the cache of the connection and close its statements, it is called by the pool
+     * before closing the physical connection
+     *
+     * @param connection physical connection
+     */
+    static void remove(Connection connection) {
+
+        StatementCache cache = caches.remove(connection);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * This method close all the statements of the cache
+     */
+    synchronized void clear() {
+
+        for (PreparedStatement ps : statements.values()) {
+            closeQuietly(ps);
+        }
+        statements.clear();
+    }
+
+    private static void purgeClosedConnections() {
+
+        Iterator<Map.Entry<Connection, StatementCache>> iterator = caches.entrySet().iterator();
+
+        while (iterator.hasNext()) {
+            Map.Entry<Connection, StatementCache> entry = iterator.next();
+            try {
+                if (entry.getKey().isClosed()) {
+                    entry.getValue().clear();
+                    iterator.remove();
+                }
+            } catch (SQLException e) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement ps) {
+        try {
+            ps.close();
+        } catch (SQLException e) {
+            logger.info("ERROR CLOSING CACHED STATEMENT " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,610 @@
+package daoPackage;
+
+import exceptions.DAOException;
+import voPackage.EntityMetadata;
+import voPackage.FieldMetadata;
+import voPackage.VOGenerator;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Bulk export of an entity table to a file without building the vo. The rows are read with a forward-only
+ * ResultSet and copied in off-heap buffers (direct ByteBuffer) that are written with a FileChannel or, in
+ * memory mapped mode, copied in a mapped window of the file. The numeric and boolean columns are copied
+ * without objects; for the String, Timestamp, BigDecimal and byte[] columns the driver still builds the value
+ */
+public final class TableExporter {
+
+    private static final Logger logger = Logger.getLogger(TableExporter.class.getName());
+
+    public static final int DEFAULT_FETCH_SIZE = 10000;
+
+    public static final int DEFAULT_BLOCK_ROWS = 65536;
+
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+    public static final long DEFAULT_MAPPED_WINDOW_SIZE = 64L << 20;
+
+    private static final byte[] MAGIC = "VOCOLS01".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private final DAOGenerator dao;
+
+    private final ExportFormat format;
+
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+
+    private int blockRows = DEFAULT_BLOCK_ROWS;
+
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+
+    private long mappedWindowSize = DEFAULT_MAPPED_WINDOW_SIZE;
+
+    private boolean memoryMapped;
+
+    private String[] fieldNames;
+
+    /**
+     * @param dao    dao that gives the connection of the entity
+     * @param format format of the file
+     */
+    public TableExporter(DAOGenerator dao, ExportFormat format) {
+        if (dao == null || format == null) {
+            throw new IllegalArgumentException("dao and format are required");
+        }
+        this.dao = dao;
+        this.format = format;
+    }
+
+    /**
+     * @param fetchSize number of rows fetched from the database in a round trip
+     */
+    public void setFetchSize(int fetchSize) {
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("fetchSize must be greater than 0: " + fetchSize);
+        }
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * @param blockRows number of rows of a block of the columnar format
+     */
+    public void setBlockRows(int blockRows) {
+        if (blockRows < 1) {
+            throw new IllegalArgumentException("blockRows must be greater than 0: " + blockRows);
+        }
+        this.blockRows = blockRows;
+    }
+
+    /**
+     * @param bufferSize size in bytes of the output buffer of the CSV format
+     */
+    public void setBufferSize(int bufferSize) {
+        if (bufferSize < 64) {
+            throw new IllegalArgumentException("bufferSize must be at least 64: " + bufferSize);
+        }
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * This method enable the memory mapped output: the file is mapped in windows of mappedWindowSize bytes
+     * and the pages are written by the operating system, the file is truncated to the exported size at the end
+     *
+     * @param memoryMapped     true to write with a memory mapping instead of FileChannel.write
+     * @param mappedWindowSize size in bytes of a mapped window
+     */
+    public void setMemoryMapped(boolean memoryMapped, long mappedWindowSize) {
+        if (mappedWindowSize < 1 || mappedWindowSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("mappedWindowSize must be between 1 and " + Integer.MAX_VALUE + ": " + mappedWindowSize);
+        }
+        this.memoryMapped = memoryMapped;
+        this.mappedWindowSize = mappedWindowSize;
+    }
+
+    /**
+     * @param fieldNames names of the fields or of the columns to export, none for all the columns
+     */
+    public void setFields(String... fieldNames) {
+        this.fieldNames = fieldNames == null || fieldNames.length == 0 ? null : fieldNames.clone();
+    }
+
+    /**
+     * This method export the rows of the table in the file, the file is replaced
+     *
+     * @param clazz  value object class
+     * @param file   destination file
+     * @param where  condition without the WHERE keyword, with ? for the parameters (null for all the rows)
+     * @param params values of the parameters
+     * @return number of rows exported
+     */
+    public long export(Class<? extends VOGenerator> clazz, Path file, String where, Object... params) throws DAOException {
+
+        EntitySql entitySql = EntitySql.of(clazz);
+        EntityMetadata metadata = entitySql.getMetadata();
+        List<FieldMetadata> columns = fieldNames == null ? metadata.getColumns() : ProjectionMapper.findColumns(metadata, fieldNames);
+        String sql = entitySql.getSelectStatement(columns, where);
+
+        long start = System.nanoTime();
+        long rows = 0;
+
+        Connection con = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+             Sink sink = memoryMapped ? new MappedSink(channel, mappedWindowSize) : new ChannelSink(channel)) {
+
+            con = dao.getConnection(clazz, true);
+            ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            //the MySQL driver streams the rows only with this fetch size, otherwise it reads the whole table in memory
+            ps.setFetchSize(SqlDialect.of(con) == SqlDialect.MYSQL ? Integer.MIN_VALUE : fetchSize);
+            for (int i = 0; params != null && i < params.length; i++) {
+                JdbcTypes.bind(ps, i + 1, params[i], params[i] == null ? Object.class : params[i].getClass());
+            }
+
+            logger.info("Doing Export " + format + " on table: " + metadata.getTableName() + " to " + file);
+            logger.info("EXPORT STATEMENT: " + sql);
+            rs = ps.executeQuery();
+
+            RowWriter writer = format == ExportFormat.CSV ? new CsvWriter(columns, sink) : new ColumnarWriter(columns, sink);
+            writer.writeHeader();
+            while (rs.next()) {
+                writer.writeRow(rs);
+                rows++;
+            }
+            writer.finish(rows);
+
+        } catch (SQLException e) {
+            logger.info("ERROR IN TABLE " + metadata.getTableName());
+            throw new DAOException("EXCEPTION IS: " + e.getMessage(), e);
+
+        } catch (IOException e) {
+            logger.info("ERROR WRITING " + file);
+            throw new DAOException("EXCEPTION IS: " + e.getMessage(), e);
+
+        } finally {
+            try {
+                if (rs != null) {
+                    rs.close();
+                }
+                if (ps != null) {
+                    ps.close();
+                }
+            } catch (SQLException e) {
+                logger.info("ERROR CLOSING RESOURCES " + e.getMessage());
+            } finally {
+                dao.releaseConnection(con);
+            }
+        }
+
+        logger.info("EXPORTED " + rows + " ROWS OF TABLE " + metadata.getTableName() + " IN "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+
+        return rows;
+    }
+
+    /**
+     * This method encode the chars from-to of the text in UTF-8 in the buffer, the buffer must have 3 bytes for every char
+     */
+    static void putUtf8(ByteBuffer out, String text, int from, int to) {
+
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                out.put((byte) c);
+            } else if (c < 0x800) {
+                out.put((byte) (0xC0 | c >> 6));
+                out.put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < to && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                out.put((byte) (0xF0 | codePoint >> 18));
+                out.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+                out.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+                out.put((byte) (0x80 | codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                out.put((byte) '?');
+            } else {
+                out.put((byte) (0xE0 | c >> 12));
+                out.put((byte) (0x80 | c >> 6 & 0x3F));
+                out.put((byte) (0x80 | c & 0x3F));
+            }
+        }
+    }
+
+    /**
+     * Destination of the bytes of the export
+     */
+    interface Sink extends AutoCloseable {
+
+        void write(ByteBuffer src) throws IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    private interface RowWriter {
+
+        void writeHeader() throws IOException;
+
+        void writeRow(ResultSet rs) throws SQLException, IOException;
+
+        void finish(long rows) throws IOException;
+    }
+
+    private static final class ChannelSink implements Sink {
+
+        private final FileChannel channel;
+
+        private ChannelSink(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public void write(ByteBuffer src) throws IOException {
+            while (src.hasRemaining()) {
+                channel.write(src);
+            }
+        }
+
+        @Override
+        public void close() {
+            //the channel is closed by export
+        }
+    }
+
+    private static final class MappedSink implements Sink {
+
+        private final FileChannel channel;
+
+        private final long windowSize;
+
+        private MappedByteBuffer window;
+
+        private long windowStart;
+
+        private MappedSink(FileChannel channel, long windowSize) {
+            this.channel = channel;
+            this.windowSize = windowSize;
+        }
+
+        @Override
+        public void write(ByteBuffer src) throws IOException {
+
+            while (src.hasRemaining()) {
+                if (window == null || !window.hasRemaining()) {
+                    windowStart = window == null ? 0 : windowStart + window.capacity();
+                    window = channel.map(FileChannel.MapMode.READ_WRITE, windowStart, windowSize);
+                }
+
+                int length = Math.min(src.remaining(), window.remaining());
+                int limit = src.limit();
+                src.limit(src.position() + length);
+                window.put(src);
+                src.limit(limit);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+
+            long size = window == null ? 0 : windowStart + window.position();
+            window = null;
+            //the last window extends the file, it is cut to the written bytes
+            channel.truncate(size);
+        }
+    }
+
+    /**
+     * Writer of the CSV format, the values are encoded directly in a direct buffer that is written when full
+     */
+    private final class CsvWriter implements RowWriter {
+
+        private final ExportColumn.Kind[] kinds;
+
+        private final String[] names;
+
+        private final Sink sink;
+
+        private final ByteBuffer out = ByteBuffer.allocateDirect(bufferSize);
+
+        private final byte[] digits = new byte[20];
+
+        private CsvWriter(List<FieldMetadata> columns, Sink sink) {
+
+            this.sink = sink;
+            this.kinds = new ExportColumn.Kind[columns.size()];
+            this.names = new String[columns.size()];
+            for (int i = 0; i < kinds.length; i++) {
+                kinds[i] = ExportColumn.Kind.of(columns.get(i).getType());
+                names[i] = columns.get(i).getColumnName();
+            }
+        }
+
+        @Override
+        public void writeHeader() throws IOException {
+
+            for (int i = 0; i < names.length; i++) {
+                if (i > 0) {
+                    put((byte) ',');
+                }
+                putText(names[i]);
+            }
+            put((byte) '\n');
+        }
+
+        @Override
+        public void writeRow(ResultSet rs) throws SQLException, IOException {
+
+            for (int i = 0; i < kinds.length; i++) {
+                if (i > 0) {
+                    put((byte) ',');
+                }
+                writeValue(rs, i + 1, kinds[i]);
+            }
+            put((byte) '\n');
+        }
+
+        private void writeValue(ResultSet rs, int index, ExportColumn.Kind kind) throws SQLException, IOException {
+
+            switch (kind) {
+                case INT:
+                case SHORT:
+                case BYTE:
+                case LONG:
+                    long integral = rs.getLong(index);
+                    if (!rs.wasNull()) {
+                        putLong(integral);
+                    }
+                    break;
+                case BOOLEAN:
+                    boolean bool = rs.getBoolean(index);
+                    if (!rs.wasNull()) {
+                        putAscii(bool ? "true" : "false");
+                    }
+                    break;
+                case DOUBLE:
+                    double real = rs.getDouble(index);
+                    if (!rs.wasNull()) {
+                        putAscii(Double.toString(real));
+                    }
+                    break;
+                case FLOAT:
+                    float single = rs.getFloat(index);
+                    if (!rs.wasNull()) {
+                        putAscii(Float.toString(single));
+                    }
+                    break;
+                case TIMESTAMP:
+                    Timestamp timestamp = rs.getTimestamp(index);
+                    if (timestamp != null) {
+                        putAscii(timestamp.toString());
+                    }
+                    break;
+                case DECIMAL:
+                    BigDecimal decimal = rs.getBigDecimal(index);
+                    if (decimal != null) {
+                        putAscii(decimal.toPlainString());
+                    }
+                    break;
+                case BINARY:
+                    byte[] bytes = rs.getBytes(index);
+                    if (bytes != null) {
+                        for (byte b : bytes) {
+                            ensure(2);
+                            out.put(HEX[b >> 4 & 0xF]);
+                            out.put(HEX[b & 0xF]);
+                        }
+                    }
+                    break;
+                default:
+                    String text = rs.getString(index);
+                    if (text != null) {
+                        putText(text);
+                    }
+                    break;
+            }
+        }
+
+        @Override
+        public void finish(long rows) throws IOException {
+            flush();
+        }
+
+        private void putText(String text) throws IOException {
+
+            boolean quoted = false;
+            for (int i = 0; i < text.length() && !quoted; i++) {
+                char c = text.charAt(i);
+                quoted = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+
+            if (!quoted) {
+                putChars(text, 0, text.length());
+                return;
+            }
+
+            put((byte) '"');
+            int from = 0;
+            for (int i = 0; i < text.length(); i++) {
+                if (text.charAt(i) == '"') {
+                    putChars(text, from, i + 1);
+                    from = i;
+                }
+            }
+            putChars(text, from, text.length());
+            put((byte) '"');
+        }
+
+        private void putChars(String text, int from, int to) throws IOException {
+
+            //a chunk at a time, so a text larger than the buffer is written in many flushes
+            int chunk = out.capacity() / 3 - 1;
+            int start = from;
+            while (start < to) {
+                int end = Math.min(to, start + chunk);
+                //a surrogate pair is not split
+                if (end < to && Character.isHighSurrogate(text.charAt(end - 1))) {
+                    end++;
+                }
+                ensure((end - start) * 3);
+                putUtf8(out, text, start, end);
+                start = end;
+            }
+        }
+
+        private void putAscii(String text) throws IOException {
+
+            ensure(text.length());
+            for (int i = 0; i < text.length(); i++) {
+                out.put((byte) text.charAt(i));
+            }
+        }
+
+        private void putLong(long value) throws IOException {
+
+            if (value == Long.MIN_VALUE) {
+                putAscii("-9223372036854775808");
+                return;
+            }
+
+            ensure(digits.length);
+            if (value < 0) {
+                out.put((byte) '-');
+                value = -value;
+            }
+
+            int position = digits.length;
+            do {
+                digits[--position] = (byte) ('0' + value % 10);
+                value /= 10;
+            } while (value != 0);
+
+            out.put(digits, position, digits.length - position);
+        }
+
+        private void put(byte b) throws IOException {
+
+            ensure(1);
+            out.put(b);
+        }
+
+        private void ensure(int length) throws IOException {
+
+            if (out.remaining() < length) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+
+            out.flip();
+            sink.write(out);
+            out.clear();
+        }
+    }
+
+    /**
+     * Writer of the columnar format, the rows are copied in the off-heap buffers of the columns and a block
+     * is written every blockRows rows
+     */
+    private final class ColumnarWriter implements RowWriter {
+
+        private final ExportColumn[] columns;
+
+        private final Sink sink;
+
+        private final ByteBuffer blockHeader = ByteBuffer.allocateDirect(12).order(ByteOrder.LITTLE_ENDIAN);
+
+        private int rowsInBlock;
+
+        private ColumnarWriter(List<FieldMetadata> fields, Sink sink) {
+
+            this.sink = sink;
+            this.columns = new ExportColumn[fields.size()];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = new ExportColumn(fields.get(i), i + 1, blockRows);
+            }
+        }
+
+        @Override
+        public void writeHeader() throws IOException {
+
+            List<byte[]> names = new ArrayList<>();
+            int size = MAGIC.length + 4;
+            for (ExportColumn column : columns) {
+                byte[] name = column.getName().getBytes(StandardCharsets.UTF_8);
+                names.add(name);
+                size += 2 + name.length + 1;
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+            header.put(MAGIC);
+            header.putInt(columns.length);
+            for (int i = 0; i < columns.length; i++) {
+                header.putShort((short) names.get(i).length);
+                header.put(names.get(i));
+                header.put((byte) columns[i].getKind().getCode());
+            }
+            header.flip();
+            sink.write(header);
+        }
+
+        @Override
+        public void writeRow(ResultSet rs) throws SQLException, IOException {
+
+            for (ExportColumn column : columns) {
+                column.read(rs, rowsInBlock);
+            }
+
+            if (++rowsInBlock == blockRows) {
+                writeBlock();
+            }
+        }
+
+        @Override
+        public void finish(long rows) throws IOException {
+
+            if (rowsInBlock > 0) {
+                writeBlock();
+            }
+
+            blockHeader.clear();
+            blockHeader.putInt(0);
+            blockHeader.putLong(rows);
+            blockHeader.flip();
+            sink.write(blockHeader);
+        }
+
+        private void writeBlock() throws IOException {
+
+            blockHeader.clear();
+            blockHeader.putInt(rowsInBlock);
+            blockHeader.flip();
+            sink.write(blockHeader);
+
+            for (ExportColumn column : columns) {
+                column.write(sink, rowsInBlock);
+            }
+            rowsInBlock = 0;
+        }
+    }
+}
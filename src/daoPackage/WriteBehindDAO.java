@@ -0,0 +1,255 @@
+package daoPackage;
+
+import exceptions.DAOException;
+import voPackage.VOGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * Write behind mode of DAOGenerator.create for the rows that don't need to be read back at once (audit, events).
+ * The vo are queued in a bounded buffer and a background thread inserts them with createAll when the buffer
+ * has flushSize rows or every flushInterval milliseconds. When the buffer is full create waits for the flusher.
+ * close inserts the rows still in the buffer before returning; the rows of a failed batch go to the FailureHandler
+ */
+public class WriteBehindDAO implements AutoCloseable {
+
+    protected static final Logger logger = Logger.getLogger(WriteBehindDAO.class.getName());
+
+    private final DAOGenerator dao;
+
+    private final int flushSize;
+
+    private final long flushIntervalNanos;
+
+    private final FailureHandler failureHandler;
+
+    private final Queue<VOGenerator> buffer = new ConcurrentLinkedQueue<>();
+
+    private final Semaphore capacity;
+
+    private final AtomicInteger pending = new AtomicInteger();
+
+    //callers inside create or offer, close waits for them before the last flush
+    private final AtomicInteger producers = new AtomicInteger();
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final Thread flusher;
+
+    private volatile boolean closed;
+
+    /**
+     * @param dao                 dao that inserts the rows, it must borrow the connections from the pool: the flusher
+     *                            can't share the connection and the transaction of the caller
+     * @param capacity            max number of rows in the buffer
+     * @param flushSize           number of rows that start a flush
+     * @param flushIntervalMillis max time in milliseconds a row waits in the buffer
+     * @param failureHandler      called with the rows of a failed batch, null to only log the error
+     */
+    public WriteBehindDAO(DAOGenerator dao, int capacity, int flushSize, long flushIntervalMillis, FailureHandler failureHandler) {
+        if (capacity < 1 || flushSize < 1 || flushIntervalMillis < 1) {
+            throw new IllegalArgumentException("capacity, flushSize and flushIntervalMillis must be greater than 0");
+        }
+        if (dao.connection != null) {
+            throw new IllegalArgumentException("a dao on a single connection can't be used by the write behind flusher");
+        }
+        this.dao = dao;
+        this.flushSize = Math.min(flushSize, capacity);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.failureHandler = failureHandler;
+        this.capacity = new Semaphore(capacity);
+
+        this.flusher = new Thread(this::runFlusher, "write-behind-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * This method queue the vo, if the buffer is full it waits until the flusher makes room
+     *
+     * @param voGenerator value object to insert
+     */
+    public void create(VOGenerator voGenerator) throws DAOException {
+
+        producers.incrementAndGet();
+        try {
+            checkOpen(voGenerator);
+            try {
+                capacity.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DAOException("EXCEPTION IS: INTERRUPTED WAITING THE WRITE BEHIND BUFFER", e);
+            }
+            enqueue(voGenerator);
+
+        } finally {
+            producers.decrementAndGet();
+        }
+    }
+
+    /**
+     * This method queue the vo, waiting at most the timeout if the buffer is full
+     *
+     * @param voGenerator value object to insert
+     * @param timeout     max wait
+     * @param unit        unit of timeout
+     * @return false if the buffer is still full after the timeout
+     */
+    public boolean offer(VOGenerator voGenerator, long timeout, TimeUnit unit) throws DAOException, InterruptedException {
+
+        producers.incrementAndGet();
+        try {
+            checkOpen(voGenerator);
+            if (!capacity.tryAcquire(timeout, unit)) {
+                return false;
+            }
+            enqueue(voGenerator);
+
+            return true;
+
+        } finally {
+            producers.decrementAndGet();
+        }
+    }
+
+    /**
+     * This method insert the rows in the buffer now, in the calling thread
+     */
+    public void flush() {
+
+        flushLock.lock();
+        try {
+            int toFlush = pending.get();
+
+            while (toFlush > 0) {
+                List<VOGenerator> rows = new ArrayList<>(Math.min(toFlush, flushSize));
+                VOGenerator row;
+                while (rows.size() < flushSize && (row = buffer.poll()) != null) {
+                    rows.add(row);
+                }
+                if (rows.isEmpty()) {
+                    break;
+                }
+                toFlush -= rows.size();
+
+                try {
+                    dao.createAll(rows);
+                } catch (DAOException e) {
+                    fail(rows, e);
+                } catch (RuntimeException e) {
+                    fail(rows, new DAOException("EXCEPTION IS: " + e.getMessage(), e));
+                } finally {
+                    pending.addAndGet(-rows.size());
+                    capacity.release(rows.size());
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    /**
+     * This method stop accepting rows and insert the rows still in the buffer
+     */
+    @Override
+    public void close() {
+
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(flusher);
+
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        //the callers blocked on a full buffer get the room freed by flush, then they see the buffer closed;
+        //the callers that passed the check before close queue their row, it is flushed after they return
+        flush();
+        while (producers.get() > 0) {
+            LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(1));
+            flush();
+        }
+        flush();
+    }
+
+    private void checkOpen(VOGenerator voGenerator) throws DAOException {
+
+        if (voGenerator == null) {
+            throw new DAOException("EXCEPTION IS: VO IS NULL");
+        }
+
+        if (closed) {
+            throw new DAOException("EXCEPTION IS: WRITE BEHIND BUFFER IS CLOSED");
+        }
+    }
+
+    private void enqueue(VOGenerator voGenerator) throws DAOException {
+
+        //closed while waiting for the room in the buffer
+        if (closed) {
+            capacity.release();
+            throw new DAOException("EXCEPTION IS: WRITE BEHIND BUFFER IS CLOSED");
+        }
+
+        buffer.add(voGenerator);
+        if (pending.incrementAndGet() >= flushSize) {
+            LockSupport.unpark(flusher);
+        }
+    }
+
+    private void runFlusher() {
+
+        long lastFlush = System.nanoTime();
+
+        while (!closed) {
+            long wait = flushIntervalNanos - (System.nanoTime() - lastFlush);
+            if (wait > 0 && pending.get() < flushSize) {
+                LockSupport.parkNanos(this, wait);
+            }
+
+            if (closed || pending.get() >= flushSize || System.nanoTime() - lastFlush >= flushIntervalNanos) {
+                flush();
+                lastFlush = System.nanoTime();
+            }
+        }
+    }
+
+    private void fail(List<VOGenerator> rows, DAOException e) {
+
+        logger.severe("ERROR IN WRITE BEHIND OF " + rows.size() + " ROWS " + e.getMessage());
+
+        if (failureHandler != null) {
+            try {
+                failureHandler.onFailure(rows, e);
+            } catch (RuntimeException ex) {
+                logger.severe("ERROR IN WRITE BEHIND FAILURE HANDLER " + ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Callback of the rows not inserted, for a BatchDAOException the failed row is at getFailedIndex
+     */
+    @FunctionalInterface
+    public interface FailureHandler {
+
+        void onFailure(List<VOGenerator> rows, DAOException e);
+    }
+}
@@ -0,0 +1,31 @@
+package exceptions;
+
+import java.util.Arrays;
+
+/**
+ * Exception thrown when a JDBC batch of the DAO fails. It carries the update count of every row
+ * of the request (Statement.EXECUTE_FAILED for the failed row and for the rows not executed)
+ * and the position of the first failed row
+ */
+public class BatchDAOException extends DAOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int[] updateCounts;
+
+    private final int failedIndex;
+
+    public BatchDAOException(String s, Exception e, int[] updateCounts, int failedIndex) {
+        super(s, e);
+        this.updateCounts = updateCounts;
+        this.failedIndex = failedIndex;
+    }
+
+    public int[] getUpdateCounts() {
+        return Arrays.copyOf(updateCounts, updateCounts.length);
+    }
+
+    public int getFailedIndex() {
+        return failedIndex;
+    }
+}
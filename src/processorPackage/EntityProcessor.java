@@ -0,0 +1,521 @@
+package processorPackage;
+
+import daoPackage.Method;
+import daoPackage.Query;
+import voPackage.Column;
+import voPackage.Entity;
+import voPackage.Id;
+import voPackage.SqlTypes;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Annotation processor that generates at build time, for every @Entity vo, the class VOXXX_Mapper (daoPackage.EntityMapper)
+ * with the parameterized CRUD statements and the binders/row mapper without reflection; the tables are created and
+ * changed only by the schema sync of VOGenerator.
+ * The mapping errors (es: java type not compatible with the oracle type of @Column) are reported as compilation errors.
+ * The vo fields are read and written directly if they aren't private, otherwise with the getter/setter (also generated by lombok).
+ *
+ * It is enabled with: javac -processorpath out -processor lombok.launch.AnnotationProcessorHider$AnnotationProcessor,processorPackage.EntityProcessor ...
+ */
+@SupportedAnnotationTypes({"voPackage.Entity", "daoPackage.Query", "daoPackage.Method"})
+public class EntityProcessor extends AbstractProcessor {
+
+    private static final String MAPPER_SUFFIX = "_Mapper";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(Entity.class)) {
+            if (element.getKind() == ElementKind.CLASS) {
+                try {
+                    processEntity((TypeElement) element);
+                } catch (IllegalArgumentException e) {
+                    error(element, e.getMessage());
+                } catch (IOException e) {
+                    error(element, "error writing the mapper of " + element.getSimpleName() + ": " + e.getMessage());
+                }
+            }
+        }
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(Query.class)) {
+            String sql = element.getAnnotation(Query.class).value();
+            if (sql == null || sql.trim().isEmpty()) {
+                error(element, "@Query of " + element.getSimpleName() + " is empty");
+            }
+        }
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(Method.class)) {
+            String methodName = element.getAnnotation(Method.class).methodName();
+            if (methodName == null || methodName.trim().isEmpty()) {
+                error(element, "@Method of " + element.getSimpleName() + " has an empty methodName");
+            }
+        }
+
+        return false;
+    }
+
+    private void processEntity(TypeElement entity) throws IOException {
+
+        List<FieldModel> fields = new ArrayList<>();
+        boolean valid = true;
+
+        for (VariableElement field : ElementFilter.fieldsIn(entity.getEnclosedElements())) {
+            if (field.getModifiers().contains(Modifier.STATIC)) {
+                continue;
+            }
+            try {
+                FieldModel model = new FieldModel(field, entity);
+                if (model.column != null) {
+                    checkColumnType(model);
+                }
+                fields.add(model);
+
+            } catch (IllegalArgumentException e) {
+                error(field, e.getMessage());
+                valid = false;
+            }
+        }
+
+        if (!valid) {
+            return;
+        }
+
+        List<FieldModel> pkFields = new ArrayList<>();
+        for (FieldModel field : fields) {
+            if (field.id) {
+                pkFields.add(field);
+            }
+        }
+
+        if (pkFields.isEmpty()) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "VO " + entity.getSimpleName() + " hasn't @Id, the mapper isn't generated", entity);
+            return;
+        }
+
+        writeMapper(entity, getTableName(entity), fields, pkFields);
+    }
+
+    /**
+     * This method do at compile time the check of VOGenerator.getColumns: the oracle type of the column must be compatible with the java type
+     */
+    private void checkColumnType(FieldModel field) {
+
+        String oracleCtrl = SqlTypes.replaceOracleTypeWithoutLength(SqlTypes.getSqlType(field.javaType));
+
+        String columnType = field.column.type();
+        if (columnType == null || columnType.isEmpty()) {
+            columnType = SqlTypes.getSqlType(field.javaType);
+        }
+
+        if (!columnType.contains(oracleCtrl)) {
+            throw new IllegalArgumentException("the type of attribute in vo: " + field.columnName + " miss matched to oracle type");
+        }
+    }
+
+    private static String getTableName(TypeElement entity) {
+
+        String tableName = entity.getAnnotation(Entity.class).name();
+        if (tableName == null || tableName.isEmpty()) {
+            tableName = entity.getSimpleName().toString().substring(2);
+        }
+        return tableName;
+    }
+
+    private static String join(List<FieldModel> fields, String suffix, String separator) {
+
+        StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; i < fields.size(); i++) {
+            builder.append(fields.get(i).columnName).append(suffix);
+            if (i < fields.size() - 1) {
+                builder.append(separator);
+            }
+        }
+
+        return builder.toString();
+    }
+
+    private void writeMapper(TypeElement entity, String tableName, List<FieldModel> fields, List<FieldModel> pkFields) throws IOException {
+
+        String packageName = ((PackageElement) getPackage(entity)).getQualifiedName().toString();
+        String voName = entity.getSimpleName().toString();
+        String mapperName = voName + MAPPER_SUFFIX;
+
+        //the lazy columns are only in the insert
+        List<FieldModel> eagerFields = new ArrayList<>();
+        for (FieldModel field : fields) {
+            if (!field.isLazy()) {
+                eagerFields.add(field);
+            }
+        }
+
+        String where = " WHERE " + join(pkFields, " = ?", " AND ");
+        String columns = join(eagerFields, "", ", ");
+        StringBuilder marks = new StringBuilder();
+        for (int i = 0; i < fields.size(); i++) {
+            marks.append(i < fields.size() - 1 ? "?," : "?");
+        }
+
+        StringBuilder out = new StringBuilder();
+
+        if (!packageName.isEmpty()) {
+            out.append("package ").append(packageName).append(";\n\n");
+        }
+        out.append("import daoPackage.ColumnReader;\n")
+                .append("import daoPackage.EntityMapper;\n")
+                .append("import daoPackage.JdbcTypes;\n\n")
+                .append("import java.sql.PreparedStatement;\n")
+                .append("import java.sql.ResultSet;\n")
+                .append("import java.sql.SQLException;\n\n")
+                .append("/**\n * Generated by processorPackage.EntityProcessor from ").append(voName).append(", do not edit\n */\n")
+                .append("public final class ").append(mapperName).append(" implements EntityMapper<").append(voName).append("> {\n\n");
+
+        constant(out, "INSERT", "INSERT INTO " + tableName + " (" + join(fields, "", ",") + ") VALUES (" + marks + ")");
+        constant(out, "UPDATE", "UPDATE " + tableName + " SET " + join(eagerFields, " = ?", ",") + where);
+        constant(out, "DELETE", "DELETE FROM " + tableName + where);
+        constant(out, "SELECT", "SELECT " + columns + " FROM " + tableName);
+        constant(out, "READ_BY_PRIMARY_KEY", "SELECT " + columns + " FROM " + tableName + where);
+
+        for (int i = 0; i < fields.size(); i++) {
+            if (!fields.get(i).isLazy() && fields.get(i).needsReader()) {
+                out.append("    private static final ColumnReader READER_").append(i)
+                        .append(" = JdbcTypes.getReader(").append(fields.get(i).rawType).append(".class);\n\n");
+            }
+        }
+
+        getter(out, "getInsertStatement", "INSERT");
+        getter(out, "getUpdateStatement", "UPDATE");
+        getter(out, "getDeleteStatement", "DELETE");
+        getter(out, "getSelectStatement", "SELECT");
+        getter(out, "getReadByPrimaryKeyStatement", "READ_BY_PRIMARY_KEY");
+
+        out.append("    @Override\n    public void bindInsert(PreparedStatement ps, ").append(voName).append(" vo) throws SQLException {\n");
+        int index = 1;
+        for (FieldModel field : fields) {
+            out.append("        ").append(field.bind(index++)).append("\n");
+        }
+        out.append("    }\n\n");
+
+        out.append("    @Override\n    public void bindUpdate(PreparedStatement ps, ").append(voName).append(" vo) throws SQLException {\n");
+        index = 1;
+        for (FieldModel field : eagerFields) {
+            out.append("        ").append(field.bind(index++)).append("\n");
+        }
+        for (FieldModel field : pkFields) {
+            out.append("        ").append(field.bind(index++)).append("\n");
+        }
+        out.append("    }\n\n");
+
+        out.append("    @Override\n    public void bindPrimaryKey(PreparedStatement ps, ").append(voName).append(" vo) throws SQLException {\n");
+        index = 1;
+        for (FieldModel field : pkFields) {
+            out.append("        ").append(field.bind(index++)).append("\n");
+        }
+        out.append("    }\n\n");
+
+        out.append("    @Override\n    public void map(ResultSet rs, ").append(voName).append(" vo) throws SQLException {\n");
+        index = 1;
+        for (int i = 0; i < fields.size(); i++) {
+            if (fields.get(i).isLazy()) {
+                continue;
+            }
+            for (String line : fields.get(i).read(index++, "READER_" + i)) {
+                out.append("        ").append(line).append("\n");
+            }
+        }
+        out.append("    }\n\n");
+
+        out.append("    @Override\n    public ").append(voName).append(" newInstance() {\n");
+        if (hasNoArgsConstructor(entity)) {
+            out.append("        return new ").append(voName).append("();\n");
+        } else {
+            out.append("        throw new UnsupportedOperationException(\"VO ").append(voName).append(" HASN'T A NO-ARGS CONSTRUCTOR\");\n");
+        }
+        out.append("    }\n}\n");
+
+        String qualifiedName = packageName.isEmpty() ? mapperName : packageName + "." + mapperName;
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, entity);
+        try (Writer writer = file.openWriter()) {
+            writer.write(out.toString());
+        }
+    }
+
+    private static void constant(StringBuilder out, String name, String value) {
+
+        out.append("    public static final String ").append(name).append(" = \"")
+                .append(value.replace("\\", "\\\\").replace("\"", "\\\"")).append("\";\n\n");
+    }
+
+    private static void getter(StringBuilder out, String method, String constant) {
+
+        out.append("    @Override\n    public String ").append(method).append("() {\n        return ")
+                .append(constant).append(";\n    }\n\n");
+    }
+
+    private static Element getPackage(Element element) {
+
+        while (element.getKind() != ElementKind.PACKAGE) {
+            element = element.getEnclosingElement();
+        }
+        return element;
+    }
+
+    private static boolean hasNoArgsConstructor(TypeElement entity) {
+
+        List<ExecutableElement> constructors = ElementFilter.constructorsIn(entity.getEnclosedElements());
+        if (constructors.isEmpty()) {
+            return true;
+        }
+        for (ExecutableElement constructor : constructors) {
+            if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    /**
+     * Model of a vo field with the code to read and write it
+     */
+    private final class FieldModel {
+
+        private final String name;
+
+        private final String columnName;
+
+        private final Column column;
+
+        private final boolean id;
+
+        private final TypeMirror type;
+
+        private final String javaType;
+
+        private final String rawType;
+
+        private final String getExpression;
+
+        private final String setPrefix;
+
+        private final String setSuffix;
+
+        private FieldModel(VariableElement field, TypeElement entity) {
+
+            this.name = field.getSimpleName().toString();
+            this.column = field.getAnnotation(Column.class);
+            this.id = field.getAnnotation(Id.class) != null;
+            this.type = field.asType();
+            this.rawType = processingEnv.getTypeUtils().erasure(type).toString();
+            this.javaType = rawType;
+
+            String columnNameValue = column != null ? column.name() : "";
+            this.columnName = (columnNameValue == null || columnNameValue.isEmpty() ? name : columnNameValue).toUpperCase();
+
+            if (!field.getModifiers().contains(Modifier.PRIVATE)) {
+                this.getExpression = "vo." + name;
+                this.setPrefix = "vo." + name + " = ";
+                this.setSuffix = ";";
+
+            } else {
+                boolean booleanPrefix = type.getKind() == TypeKind.BOOLEAN && name.length() > 2 && name.startsWith("is")
+                        && Character.isUpperCase(name.charAt(2));
+                String property = booleanPrefix ? name.substring(2) : capitalize(name);
+                String getter = booleanPrefix ? name : (type.getKind() == TypeKind.BOOLEAN ? "is" : "get") + property;
+                String setter = "set" + property;
+
+                if (!hasAccessors(entity, field, getter, setter)) {
+                    throw new IllegalArgumentException("the attribute " + name + " of vo " + entity.getSimpleName()
+                            + " is private and hasn't " + getter + "/" + setter);
+                }
+                this.getExpression = "vo." + getter + "()";
+                this.setPrefix = "vo." + setter + "(";
+                this.setSuffix = ");";
+            }
+        }
+
+        private boolean hasAccessors(TypeElement entity, VariableElement field, String getter, String setter) {
+
+            boolean hasGetter = false;
+            boolean hasSetter = false;
+            for (ExecutableElement method : ElementFilter.methodsIn(entity.getEnclosedElements())) {
+                hasGetter |= method.getSimpleName().contentEquals(getter) && method.getParameters().isEmpty();
+                hasSetter |= method.getSimpleName().contentEquals(setter) && method.getParameters().size() == 1;
+            }
+
+            boolean lombokGetter = hasLombok(entity, "lombok.Data") || hasLombok(entity, "lombok.Getter") || hasLombok(field, "lombok.Getter");
+            boolean lombokSetter = hasLombok(entity, "lombok.Data") || hasLombok(entity, "lombok.Setter") || hasLombok(field, "lombok.Setter");
+
+            return (hasGetter || lombokGetter) && (hasSetter || lombokSetter);
+        }
+
+        private boolean hasLombok(Element element, String annotation) {
+
+            for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+                if (mirror.getAnnotationType().toString().equals(annotation)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private String capitalize(String value) {
+            return Character.toUpperCase(value.charAt(0)) + value.substring(1);
+        }
+
+        private boolean isLazy() {
+            return column != null && column.lazy() && !id;
+        }
+
+        private boolean needsReader() {
+
+            switch (type.getKind()) {
+                case INT:
+                case LONG:
+                case SHORT:
+                case BYTE:
+                case FLOAT:
+                case DOUBLE:
+                case BOOLEAN:
+                    return false;
+                default:
+                    break;
+            }
+            switch (rawType) {
+                case "java.lang.String":
+                case "java.math.BigDecimal":
+                case "java.sql.Timestamp":
+                case "java.sql.Date":
+                case "byte[]":
+                    return false;
+                default:
+                    return true;
+            }
+        }
+
+        private String bind(int index) {
+
+            switch (type.getKind()) {
+                case INT:
+                    return "ps.setInt(" + index + ", " + getExpression + ");";
+                case LONG:
+                    return "ps.setLong(" + index + ", " + getExpression + ");";
+                case SHORT:
+                    return "ps.setShort(" + index + ", " + getExpression + ");";
+                case BYTE:
+                    return "ps.setByte(" + index + ", " + getExpression + ");";
+                case FLOAT:
+                    return "ps.setFloat(" + index + ", " + getExpression + ");";
+                case DOUBLE:
+                    return "ps.setDouble(" + index + ", " + getExpression + ");";
+                case BOOLEAN:
+                    return "ps.setInt(" + index + ", " + getExpression + " ? 1 : 0);";
+                default:
+                    break;
+            }
+            switch (rawType) {
+                case "java.lang.String":
+                    return "ps.setString(" + index + ", " + getExpression + ");";
+                case "java.math.BigDecimal":
+                    return "ps.setBigDecimal(" + index + ", " + getExpression + ");";
+                case "java.sql.Timestamp":
+                    return "ps.setTimestamp(" + index + ", " + getExpression + ");";
+                case "java.sql.Date":
+                    return "ps.setDate(" + index + ", " + getExpression + ");";
+                case "byte[]":
+                    return "ps.setBytes(" + index + ", " + getExpression + ");";
+                default:
+                    return "JdbcTypes.bind(ps, " + index + ", " + getExpression + ", " + rawType + ".class);";
+            }
+        }
+
+        private List<String> read(int index, String reader) {
+
+            List<String> lines = new ArrayList<>();
+
+            switch (type.getKind()) {
+                case INT:
+                    lines.add(setPrefix + "rs.getInt(" + index + ")" + setSuffix);
+                    return lines;
+                case LONG:
+                    lines.add(setPrefix + "rs.getLong(" + index + ")" + setSuffix);
+                    return lines;
+                case SHORT:
+                    lines.add(setPrefix + "rs.getShort(" + index + ")" + setSuffix);
+                    return lines;
+                case BYTE:
+                    lines.add(setPrefix + "rs.getByte(" + index + ")" + setSuffix);
+                    return lines;
+                case FLOAT:
+                    lines.add(setPrefix + "rs.getFloat(" + index + ")" + setSuffix);
+                    return lines;
+                case DOUBLE:
+                    lines.add(setPrefix + "rs.getDouble(" + index + ")" + setSuffix);
+                    return lines;
+                case BOOLEAN:
+                    lines.add(setPrefix + "rs.getInt(" + index + ") != 0" + setSuffix);
+                    return lines;
+                default:
+                    break;
+            }
+            switch (rawType) {
+                case "java.lang.String":
+                    lines.add(setPrefix + "rs.getString(" + index + ")" + setSuffix);
+                    break;
+                case "java.math.BigDecimal":
+                    lines.add(setPrefix + "rs.getBigDecimal(" + index + ")" + setSuffix);
+                    break;
+                case "java.sql.Timestamp":
+                    lines.add(setPrefix + "rs.getTimestamp(" + index + ")" + setSuffix);
+                    break;
+                case "java.sql.Date":
+                    lines.add(setPrefix + "rs.getDate(" + index + ")" + setSuffix);
+                    break;
+                case "byte[]":
+                    lines.add(setPrefix + "rs.getBytes(" + index + ")" + setSuffix);
+                    break;
+                default:
+                    String cast = type.getKind() == TypeKind.CHAR ? "(Character) " : "(" + type.toString() + ") ";
+                    if (!rawType.equals(type.toString())) {
+                        lines.add("@SuppressWarnings(\"unchecked\") " + type + " value" + index + " = " + cast + reader + ".read(rs, " + index + ");");
+                        lines.add(setPrefix + "value" + index + setSuffix);
+                    } else {
+                        lines.add(setPrefix + cast + reader + ".read(rs, " + index + ")" + setSuffix);
+                    }
+                    break;
+            }
+            return lines;
+        }
+    }
+}
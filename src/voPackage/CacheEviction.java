@@ -0,0 +1,17 @@
+package voPackage;
+
+/**
+ * Policy used to choose the entry removed when the entity cache is full
+ */
+public enum CacheEviction {
+
+    /**
+     * least recently used
+     */
+    LRU,
+
+    /**
+     * least frequently used, the least recently used among the entries with the same frequency
+     */
+    LFU
+}
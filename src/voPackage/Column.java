@@ -16,4 +16,11 @@ public @interface Column {
 
     String defaultValue() default "";
 
+    /**
+     * A lazy column (es: BLOB, CLOB, large VARCHAR) is not in the select of the vo: it is read with
+     * DAOGenerator.loadLazy or as a stream with openBinaryStream/openCharacterStream.
+     * It is always written by create, by update and by the update of upsert only when it is set
+     */
+    boolean lazy() default false;
+
 }
@@ -0,0 +1,117 @@
+package voPackage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Keeps the values of the columns of a vo read from the database, so the dao can update only the
+ * columns changed after the read. A vo without snapshot (built by the caller) is always updated in full
+ */
+public final class DirtyTracker {
+
+    private DirtyTracker() {
+    }
+
+    /**
+     * This method save the current values of the columns as the state of the row in the database
+     *
+     * @param voGenerator value object read or written
+     */
+    public static void snapshot(VOGenerator voGenerator) {
+
+        List<FieldMetadata> columns = EntityMetadata.of(voGenerator.getClass()).getColumns();
+
+        Object[] state = new Object[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+            state[i] = FieldMetadata.copyValue(columns.get(i).get(voGenerator));
+        }
+
+        voGenerator.loadedState = state;
+    }
+
+    /**
+     * This method save the current values of only some columns, es: after a read of those columns.
+     * The other columns keep the values of the snapshot, so the changes not yet written are not lost;
+     * a vo without snapshot gets the snapshot of all the columns
+     *
+     * @param voGenerator value object
+     * @param loaded      columns read from the database
+     */
+    public static void snapshot(VOGenerator voGenerator, List<FieldMetadata> loaded) {
+
+        Object[] state = voGenerator.loadedState;
+        if (state == null) {
+            snapshot(voGenerator);
+            return;
+        }
+
+        List<FieldMetadata> columns = EntityMetadata.of(voGenerator.getClass()).getColumns();
+
+        Object[] newState = state.clone();
+        for (FieldMetadata column : loaded) {
+            int index = columns.indexOf(column);
+            newState[index] = FieldMetadata.copyValue(column.get(voGenerator));
+        }
+
+        voGenerator.loadedState = newState;
+    }
+
+    /**
+     * This method forget the snapshot, the next update writes all the columns
+     *
+     * @param voGenerator value object
+     */
+    public static void clear(VOGenerator voGenerator) {
+
+        voGenerator.loadedState = null;
+    }
+
+    public static boolean isTracked(VOGenerator voGenerator) {
+
+        return voGenerator.loadedState != null;
+    }
+
+    /**
+     * This method get the value of the column in the snapshot, es: the primary key of the row before a change of the key
+     *
+     * @param voGenerator value object with snapshot
+     * @param column      column of the vo
+     * @return the value read from the database
+     */
+    public static Object getLoadedValue(VOGenerator voGenerator, FieldMetadata column) {
+
+        Object[] state = voGenerator.loadedState;
+        if (state == null) {
+            throw new IllegalStateException("VO " + voGenerator.getClass().getSimpleName() + " HASN'T SNAPSHOT");
+        }
+
+        return state[EntityMetadata.of(voGenerator.getClass()).getColumns().indexOf(column)];
+    }
+
+    /**
+     * This method compare the columns with the snapshot, the primary key columns are returned too when they changed
+     *
+     * @param voGenerator value object
+     * @return the columns changed after the snapshot, null if the vo has no snapshot
+     */
+    public static List<FieldMetadata> getDirtyColumns(VOGenerator voGenerator) {
+
+        Object[] state = voGenerator.loadedState;
+        if (state == null) {
+            return null;
+        }
+
+        List<FieldMetadata> columns = EntityMetadata.of(voGenerator.getClass()).getColumns();
+        List<FieldMetadata> dirtyColumns = new ArrayList<>();
+
+        for (int i = 0; i < columns.size(); i++) {
+            FieldMetadata column = columns.get(i);
+            if (!Objects.deepEquals(state[i], column.get(voGenerator))) {
+                dirtyColumns.add(column);
+            }
+        }
+
+        return dirtyColumns;
+    }
+}
@@ -10,4 +10,21 @@ import java.lang.annotation.Target;
 public @interface Entity {
 
     String name() default "";
+
+    /**
+     * name (index in connectionDB.config) of the datasource of the table, empty for defaultDataSource
+     */
+    String dataSource() default "";
+
+    /**
+     * max number of rows kept in the cache of readByPrimaryKey, 0 to disable the cache
+     */
+    int cacheSize() default 0;
+
+    /**
+     * milliseconds after which a cached row is read again from the database, 0 for no expiration
+     */
+    long cacheTtlMillis() default 0;
+
+    CacheEviction cacheEviction() default CacheEviction.LRU;
 }
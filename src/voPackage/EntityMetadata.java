@@ -0,0 +1,193 @@
+package voPackage;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable model of a vo class: table name, ordered columns and primary key columns.
+ * The model is built with reflection only once per class and then shared by all the DAO calls
+ */
+public final class EntityMetadata {
+
+    private static final ClassValue<EntityMetadata> cache = new ClassValue<EntityMetadata>() {
+        @Override
+        protected EntityMetadata computeValue(Class<?> type) {
+            return new EntityMetadata(type);
+        }
+    };
+
+    private static volatile boolean accessorGeneration = false;
+
+    private final Class<?> entityClass;
+
+    private final String tableName;
+
+    private final List<FieldMetadata> columns;
+
+    private final List<FieldMetadata> primaryKeys;
+
+    private final List<FieldMetadata> eagerColumns;
+
+    private final List<FieldMetadata> lazyColumns;
+
+    private final Map<String, FieldMetadata> columnsByName;
+
+    private final MethodHandle constructor;
+
+    private EntityMetadata(Class<?> clazz) {
+
+        this.entityClass = clazz;
+        this.tableName = getTableName(clazz);
+
+        List<FieldMetadata> allColumns = new ArrayList<>();
+        List<FieldMetadata> pkColumns = new ArrayList<>();
+        List<FieldMetadata> eager = new ArrayList<>();
+        List<FieldMetadata> lazy = new ArrayList<>();
+        Map<String, FieldMetadata> byName = new LinkedHashMap<>();
+
+        for (Field field : clazz.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) {
+                continue;
+            }
+            FieldMetadata fieldMetadata = new FieldMetadata(field);
+            allColumns.add(fieldMetadata);
+            byName.put(fieldMetadata.getColumnName(), fieldMetadata);
+            if (fieldMetadata.isId()) {
+                pkColumns.add(fieldMetadata);
+            }
+            (fieldMetadata.isLazy() ? lazy : eager).add(fieldMetadata);
+        }
+
+        this.columns = Collections.unmodifiableList(allColumns);
+        this.primaryKeys = Collections.unmodifiableList(pkColumns);
+        this.eagerColumns = lazy.isEmpty() ? columns : Collections.unmodifiableList(eager);
+        this.lazyColumns = Collections.unmodifiableList(lazy);
+        this.columnsByName = Collections.unmodifiableMap(byName);
+
+        MethodHandle noArgsConstructor = null;
+        try {
+            Constructor<?> declaredConstructor = clazz.getDeclaredConstructor();
+            declaredConstructor.setAccessible(true);
+            noArgsConstructor = MethodHandles.lookup().unreflectConstructor(declaredConstructor)
+                    .asType(MethodType.methodType(Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException | RuntimeException e) {
+            // the vo can't be built by the dao, it can be only filled
+        }
+        this.constructor = noArgsConstructor;
+    }
+
+    /**
+     * This method enable the generation at runtime of the mapper of the vo classes without the mapper generated
+     * at compile time (daoPackage.MapperGenerator): one class per entity that binds the statements and maps the rows
+     * reading and writing the fields directly or with the getter/setter. When the class can't be generated the vo keeps
+     * the reflective accessors. It must be called before the first use of the vo classes
+     *
+     * @param enabled true to generate the accessors
+     */
+    public static void setAccessorGeneration(boolean enabled) {
+        accessorGeneration = enabled;
+    }
+
+    public static boolean isAccessorGeneration() {
+        return accessorGeneration;
+    }
+
+    /**
+     * This method get the metadata of the vo class, the metadata is built the first time and then cached
+     *
+     * @param clazz value object class
+     * @return metadata of the class
+     */
+    public static EntityMetadata of(Class<?> clazz) {
+
+        return cache.get(clazz);
+    }
+
+    /**
+     * This method get the name of table (the name of @Entity or the substring of name the vo class)
+     * es: VOTABLE ---> in database is: TABLE
+     *
+     * @param clazz value object class
+     * @return table name
+     */
+    private static String getTableName(Class<?> clazz) {
+
+        String tableName = null;
+
+        if (clazz.isAnnotationPresent(Entity.class)) {
+            tableName = clazz.getAnnotation(Entity.class).name();
+        }
+        if (tableName == null || tableName.isEmpty()) {
+            tableName = clazz.getSimpleName().substring(2);
+        }
+
+        return tableName;
+    }
+
+    public Class<?> getEntityClass() {
+        return entityClass;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public List<FieldMetadata> getColumns() {
+        return columns;
+    }
+
+    public List<FieldMetadata> getPrimaryKeys() {
+        return primaryKeys;
+    }
+
+    /**
+     * @return the columns read with the vo, all the columns without @Column(lazy = true)
+     */
+    public List<FieldMetadata> getEagerColumns() {
+        return eagerColumns;
+    }
+
+    public List<FieldMetadata> getLazyColumns() {
+        return lazyColumns;
+    }
+
+    /**
+     * This method build a new empty vo with the no-args constructor
+     *
+     * @return new instance of the vo class
+     */
+    public Object newInstance() {
+
+        if (constructor == null) {
+            throw new RuntimeException("VO " + entityClass.getSimpleName() + " HASN'T A NO-ARGS CONSTRUCTOR");
+        }
+
+        try {
+            return constructor.invokeExact();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException("ERROR BUILDING VO " + entityClass.getSimpleName() + " " + e.getMessage());
+        }
+    }
+
+    /**
+     * This method get the field mapped on the column
+     *
+     * @param columnName name of column in database
+     * @return the field or null if the column isn't mapped
+     */
+    public FieldMetadata getColumn(String columnName) {
+
+        return columnName == null ? null : columnsByName.get(columnName.toUpperCase());
+    }
+}
@@ -0,0 +1,141 @@
+package voPackage;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+
+/**
+ * Immutable description of a single vo field mapped on a column of the table.
+ * The accessors are resolved once, when the metadata of the entity is built
+ */
+public final class FieldMetadata {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final String fieldName;
+
+    private final String columnName;
+
+    private final Class<?> type;
+
+    private final boolean id;
+
+    private final boolean lazy;
+
+    private final MethodHandle getter;
+
+    private final MethodHandle setter;
+
+    FieldMetadata(Field field) {
+
+        this.fieldName = field.getName();
+        this.type = field.getType();
+        this.id = field.isAnnotationPresent(Id.class);
+
+        String name = null;
+        boolean lazyColumn = false;
+        if (field.isAnnotationPresent(Column.class)) {
+            name = field.getAnnotation(Column.class).name();
+            lazyColumn = field.getAnnotation(Column.class).lazy();
+        }
+        //the primary key is always read
+        this.lazy = lazyColumn && !id;
+        if (name == null || name.isEmpty()) {
+            name = field.getName().toUpperCase();
+        }
+        this.columnName = name.toUpperCase();
+
+        try {
+            field.setAccessible(true);
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            this.getter = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+            this.setter = lookup.unreflectSetter(field).asType(SETTER_TYPE);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("ERROR RESOLVING ACCESSORS OF FIELD " + field.getName() + " " + e.getMessage());
+        }
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    public String getColumnName() {
+        return columnName;
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    public boolean isId() {
+        return id;
+    }
+
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    /**
+     * This method read the value of the field from the vo
+     *
+     * @param vo value object
+     * @return value of the field
+     */
+    public Object get(Object vo) {
+        try {
+            return getter.invokeExact(vo);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException("ERROR GETTING FIELD " + fieldName + " " + e.getMessage());
+        }
+    }
+
+    /**
+     * This method write the value of the field in the vo
+     *
+     * @param vo    value object
+     * @param value new value of the field
+     */
+    public void set(Object vo, Object value) {
+        try {
+            setter.invokeExact(vo, value);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException("ERROR SETTING FIELD " + fieldName + " " + e.getMessage());
+        }
+    }
+
+    /**
+     * This method copy the mutable values (byte[], Date), so the copy isn't changed through the vo
+     *
+     * @param value value of a field
+     * @return the copy, or the value itself if it is immutable
+     */
+    public static Object copyValue(Object value) {
+
+        if (value instanceof byte[]) {
+            return ((byte[]) value).clone();
+        }
+        if (value instanceof java.util.Date) {
+            return ((java.util.Date) value).clone();
+        }
+
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return "FieldMetadata{" +
+                "fieldName='" + fieldName + '\'' +
+                ", columnName='" + columnName + '\'' +
+                ", type=" + type.getName() +
+                ", id=" + id +
+                ", lazy=" + lazy +
+                '}';
+    }
+}
@@ -0,0 +1,209 @@
+package voPackage;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * DDL produced by the schema diff of one table, before it is executed.
+ * The plan can be printed as a migration script or applied to the database; the MODIFY of different
+ * columns are merged in a single ALTER TABLE ... MODIFY (a ..., b ...), so the table is locked fewer times
+ */
+public final class SchemaChangePlan {
+
+    private static final Logger logger = Logger.getLogger(SchemaChangePlan.class.getName());
+
+    private final String tableName;
+
+    private final List<Change> changes = new ArrayList<>();
+
+    SchemaChangePlan(String tableName) {
+        this.tableName = tableName;
+    }
+
+    /**
+     * This method add a statement that can't be merged (create table, add and drop of columns, primary key)
+     *
+     * @param sql ddl statement
+     */
+    void add(String sql) {
+
+        changes.add(new Change(null, sql, null));
+    }
+
+    /**
+     * This method add the MODIFY of a column
+     *
+     * @param column name of the column in the database before the diff, it identifies the column also after a rename
+     * @param clause column clause of the MODIFY, es: NAME VARCHAR2(20) DEFAULT 'X'
+     */
+    void modify(String column, String clause) {
+
+        changes.add(new Change(column, "ALTER TABLE " + tableName + " MODIFY " + clause, clause));
+    }
+
+    /**
+     * This method add the rename of a column
+     *
+     * @param column  name of the column in the database before the diff
+     * @param oldName current name of the column
+     * @param newName new name of the column
+     */
+    void rename(String column, String oldName, String newName) {
+
+        changes.add(new Change(column, "ALTER TABLE " + tableName + " RENAME COLUMN " + oldName + " TO " + newName, null));
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    /**
+     * @return the statements in the order of the diff, one for every change
+     */
+    public List<String> getStatements() {
+
+        List<String> statements = new ArrayList<>();
+        for (Change change : changes) {
+            statements.add(change.sql);
+        }
+
+        return statements;
+    }
+
+    /**
+     * This method merge the changes of the columns. The changes of a column keep their order, the n-th MODIFY of
+     * every column goes in the n-th merged statement; create table, add/drop columns and primary key statements
+     * are never moved
+     *
+     * @return the statements to execute
+     */
+    public List<String> getMergedStatements() {
+
+        List<String> statements = new ArrayList<>();
+        Map<String, List<Change>> columnChanges = new LinkedHashMap<>();
+
+        for (Change change : changes) {
+            if (change.column == null) {
+                mergeColumnChanges(columnChanges, statements);
+                statements.add(change.sql);
+            } else {
+                columnChanges.computeIfAbsent(change.column, k -> new ArrayList<>()).add(change);
+            }
+        }
+        mergeColumnChanges(columnChanges, statements);
+
+        return statements;
+    }
+
+    private void mergeColumnChanges(Map<String, List<Change>> columnChanges, List<String> statements) {
+
+        int rounds = 0;
+        for (List<Change> list : columnChanges.values()) {
+            rounds = Math.max(rounds, list.size());
+        }
+
+        for (int round = 0; round < rounds; round++) {
+            List<Change> modify = new ArrayList<>();
+
+            for (List<Change> list : columnChanges.values()) {
+                if (round < list.size()) {
+                    Change change = list.get(round);
+                    if (change.clause != null) {
+                        modify.add(change);
+                    } else {
+                        statements.add(change.sql);
+                    }
+                }
+            }
+
+            if (modify.size() == 1) {
+                statements.add(modify.get(0).sql);
+
+            } else if (modify.size() > 1) {
+                StringBuilder builder = new StringBuilder();
+                builder.append("ALTER TABLE ")
+                        .append(tableName)
+                        .append(" MODIFY (");
+                for (int i = 0; i < modify.size(); i++) {
+                    builder.append(modify.get(i).clause);
+                    if (i < modify.size() - 1) {
+                        builder.append(", ");
+                    }
+                }
+                builder.append(")");
+                statements.add(builder.toString());
+            }
+        }
+
+        columnChanges.clear();
+    }
+
+    /**
+     * This method execute the merged statements
+     *
+     * @param con connection to database, the transaction is managed by the caller
+     * @return the statements executed
+     */
+    public List<String> apply(Connection con) throws SQLException {
+
+        if (changes.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<String> statements = getMergedStatements();
+
+        try (Statement st = con.createStatement()) {
+            for (String sql : statements) {
+                logger.info("EXECUTING DDL ON " + tableName + ": " + sql);
+                st.executeUpdate(sql);
+            }
+        }
+
+        return statements;
+    }
+
+    /**
+     * @return the merged statements as a sql script
+     */
+    public String toScript() {
+
+        StringBuilder builder = new StringBuilder();
+        builder.append("-- ").append(tableName).append("\n");
+        for (String sql : getMergedStatements()) {
+            builder.append(sql.trim()).append(";\n");
+        }
+
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return toScript();
+    }
+
+    private static final class Change {
+
+        private final String column;
+
+        private final String sql;
+
+        private final String clause;
+
+        private Change(String column, String sql, String clause) {
+            this.column = column;
+            this.sql = sql;
+            this.clause = clause;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package voPackage;
+
+import connectionPackage.DataSourceRegistry;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+/**
+ * Local file with the fingerprint of the column model of every table already reconciled.
+ * When the fingerprint of the vo is the same of the last successful diff, the table is not read from the database.
+ * The key is the datasource url, user and table name, so different databases don't share the fingerprint
+ */
+final class SchemaFingerprints {
+
+    private static final Logger logger = Logger.getLogger(SchemaFingerprints.class.getName());
+
+    /**
+     * key of connectionDB.config with the path of the file, empty or missing to disable the fingerprint
+     */
+    static final String FILE_PROPERTY = "schemaFingerprintFile";
+
+    private static final String VERSION = "1";
+
+    private final Path file;
+
+    private final Properties fingerprints = new Properties();
+
+    private SchemaFingerprints(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * This method get the fingerprints of the file configured in connectionDB.config
+     *
+     * @return the fingerprints, null if disabled
+     */
+    static SchemaFingerprints getInstance() {
+
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * This method load the fingerprint file
+     *
+     * @param fileName path of the file, null or empty to disable
+     * @return the fingerprints, null if disabled
+     */
+    static SchemaFingerprints load(String fileName) {
+
+        if (fileName == null || fileName.trim().isEmpty()) {
+            return null;
+        }
+
+        SchemaFingerprints schemaFingerprints = new SchemaFingerprints(Paths.get(fileName.trim()));
+
+        if (Files.exists(schemaFingerprints.file)) {
+            try (InputStream input = Files.newInputStream(schemaFingerprints.file)) {
+                schemaFingerprints.fingerprints.load(input);
+            } catch (IOException e) {
+                logger.info("info IN READING SCHEMA FINGERPRINT FILE " + fileName + " " + e.getMessage());
+            }
+        }
+
+        return schemaFingerprints;
+    }
+
+    /**
+     * This method compute the fingerprint of the column model of the vo: name, type, not null and default
+     * value of every column and the primary key
+     *
+     * @param tableName  table name
+     * @param columns    columns of the vo
+     * @param primaryKey primary key of the vo
+     * @return sha-256 of the model in hex
+     */
+    static String fingerprint(String tableName, List<ColumnBean> columns, List<String> primaryKey) {
+
+        StringBuilder model = new StringBuilder();
+        model.append(VERSION).append('|').append(tableName.toUpperCase()).append('\n');
+        for (ColumnBean column : columns) {
+            model.append(column.getName()).append('|')
+                    .append(column.getType()).append('|')
+                    .append(column.isNotNull()).append('|')
+                    .append(column.getDefaultValue()).append('\n');
+        }
+        model.append("PK|").append(String.join(",", primaryKey));
+
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(model.toString().getBytes(StandardCharsets.UTF_8));
+
+            StringBuilder hex = new StringBuilder();
+            for (byte b : hash) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    static String key(String url, String user, String tableName) {
+
+        return url + "/" + user + "/" + tableName.toUpperCase();
+    }
+
+    synchronized boolean matches(String key, String fingerprint) {
+
+        return fingerprint.equals(fingerprints.getProperty(key));
+    }
+
+    /**
+     * This method save the fingerprint of the table after a successful diff, the file is replaced atomically
+     *
+     * @param key         key of the table
+     * @param fingerprint fingerprint of the vo
+     */
+    synchronized void store(String key, String fingerprint) {
+
+        if (fingerprint.equals(fingerprints.getProperty(key))) {
+            return;
+        }
+
+        fingerprints.setProperty(key, fingerprint);
+        write();
+    }
+
+    synchronized void remove(String key) {
+
+        if (fingerprints.remove(key) != null) {
+            write();
+        }
+    }
+
+    synchronized void clear() {
+
+        fingerprints.clear();
+        write();
+    }
+
+    private void write() {
+
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+
+            Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+            try (OutputStream output = Files.newOutputStream(temp)) {
+                fingerprints.store(output, "schema fingerprint of the vo tables, delete the file to force the diff");
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        } catch (IOException e) {
+            logger.info("info IN WRITING SCHEMA FINGERPRINT FILE " + file + " " + e.getMessage());
+        }
+    }
+
+    private static final class Holder {
+
+        private static final SchemaFingerprints INSTANCE =
+                load(DataSourceRegistry.getInstance().getProperties().getProperty(FILE_PROPERTY));
+    }
+}
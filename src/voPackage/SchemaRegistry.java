@@ -0,0 +1,80 @@
+package voPackage;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps track of the vo classes whose table has already been reconciled with the database.
+ * The state is kept per class and per JVM, so the schema diff runs only once for every entity
+ */
+public final class SchemaRegistry {
+
+    private static final Map<Class<?>, Boolean> synchronizedClasses = new ConcurrentHashMap<>();
+
+    private static final Map<Class<?>, Object> locks = new ConcurrentHashMap<>();
+
+    private SchemaRegistry() {
+    }
+
+    /**
+     * This method check if the table of the vo class is already synchronized
+     *
+     * @param clazz value object class
+     * @return true if the schema diff has already been done
+     */
+    public static boolean isSynchronized(Class<?> clazz) {
+
+        return synchronizedClasses.containsKey(clazz);
+    }
+
+    /**
+     * This method mark the vo class as synchronized
+     *
+     * @param clazz value object class
+     */
+    static void markSynchronized(Class<?> clazz) {
+
+        synchronizedClasses.put(clazz, Boolean.TRUE);
+    }
+
+    /**
+     * This method forget the state of the vo class, the next construction of the vo will reconcile the table again
+     *
+     * @param clazz value object class
+     */
+    public static void invalidate(Class<?> clazz) {
+
+        synchronizedClasses.remove(clazz);
+    }
+
+    /**
+     * This method forget the state of all vo classes
+     */
+    public static void invalidateAll() {
+
+        synchronizedClasses.clear();
+    }
+
+    /**
+     * This method forget the schema fingerprints saved on file, the next synchronization of every vo class
+     * will read the table from the database again
+     */
+    public static void invalidateFingerprints() {
+
+        SchemaFingerprints fingerprints = SchemaFingerprints.getInstance();
+        if (fingerprints != null) {
+            fingerprints.clear();
+        }
+    }
+
+    /**
+     * This method get the monitor used to serialize the synchronization of the same vo class
+     *
+     * @param clazz value object class
+     * @return lock object of the class
+     */
+    static Object lockFor(Class<?> clazz) {
+
+        return locks.computeIfAbsent(clazz, k -> new Object());
+    }
+}
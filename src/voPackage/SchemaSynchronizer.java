@@ -0,0 +1,306 @@
+package voPackage;
+
+import connectionPackage.ConnectionPool;
+import connectionPackage.DataSourceRegistry;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.logging.Logger;
+
+/**
+ * Reconciles the tables of many vo classes at startup, instead of waiting the first construction of every vo.
+ * The tables are independent, so they are synchronized in parallel on a bounded executor: every worker
+ * borrows its own connection from the pool of the table, so the workers are never more than the connections
+ */
+public final class SchemaSynchronizer {
+
+    private static final Logger logger = Logger.getLogger(SchemaSynchronizer.class.getName());
+
+    private SchemaSynchronizer() {
+    }
+
+    /**
+     * This method synchronize all the @Entity classes found in the packages
+     *
+     * @param packageNames packages to scan, es: "voPackage"
+     * @return result of every table
+     */
+    public static List<TableResult> syncAll(String... packageNames) {
+
+        return syncAll(scan(Thread.currentThread().getContextClassLoader(), packageNames));
+    }
+
+    /**
+     * This method synchronize the tables of the vo classes in parallel, the number of workers is the max size
+     * of the smallest pool used by the classes
+     *
+     * @param classes value object classes
+     * @return result of every table, in the order of the classes
+     */
+    public static List<TableResult> syncAll(Collection<Class<? extends VOGenerator>> classes) {
+
+        return syncAll(classes, getMaxParallelism(classes));
+    }
+
+    /**
+     * This method synchronize the tables of the vo classes in parallel
+     *
+     * @param classes     value object classes
+     * @param parallelism max number of tables synchronized at the same time
+     * @return result of every table, in the order of the classes
+     */
+    public static List<TableResult> syncAll(Collection<Class<? extends VOGenerator>> classes, int parallelism) {
+
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be greater than 0");
+        }
+
+        List<Class<? extends VOGenerator>> distinctClasses = new ArrayList<>(new LinkedHashSet<>(classes));
+        if (distinctClasses.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        int workers = Math.min(parallelism, distinctClasses.size());
+        ExecutorService executor = Executors.newFixedThreadPool(workers, new SchemaThreadFactory());
+
+        long start = System.nanoTime();
+        List<TableResult> results = new ArrayList<>();
+
+        try {
+            List<Future<TableResult>> futures = new ArrayList<>();
+            for (Class<? extends VOGenerator> clazz : distinctClasses) {
+                futures.add(executor.submit(() -> syncTable(clazz)));
+            }
+
+            for (Future<TableResult> future : futures) {
+                results.add(future.get());
+            }
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("SCHEMA SYNCHRONIZATION INTERRUPTED");
+
+        } catch (ExecutionException e) {
+            throw new RuntimeException("ERROR IN SCHEMA SYNCHRONIZATION " + e.getCause().getMessage(), e.getCause());
+
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long failed = results.stream().filter(result -> !result.isSuccess()).count();
+        logger.info("SYNCHRONIZED " + results.size() + " TABLES IN " + (System.nanoTime() - start) / 1_000_000
+                + " ms WITH " + workers + " WORKERS, FAILED: " + failed);
+
+        return results;
+    }
+
+    private static TableResult syncTable(Class<? extends VOGenerator> clazz) {
+
+        String tableName = EntityMetadata.of(clazz).getTableName();
+        long start = System.nanoTime();
+
+        try {
+            List<String> ddl = VOGenerator.sync(clazz);
+            TableResult result = new TableResult(clazz, tableName, ddl, System.nanoTime() - start, null);
+            logger.info("TABLE " + tableName + " SYNCHRONIZED IN " + result.getElapsedMillis() + " ms, DDL: " + ddl.size());
+            return result;
+
+        } catch (RuntimeException e) {
+            logger.severe("ERROR IN TABLE " + tableName + ": " + e.getMessage());
+            return new TableResult(clazz, tableName, Collections.emptyList(), System.nanoTime() - start, e);
+        }
+    }
+
+    private static int getMaxParallelism(Collection<Class<? extends VOGenerator>> classes) {
+
+        DataSourceRegistry registry = DataSourceRegistry.getInstance();
+
+        int parallelism = Integer.MAX_VALUE;
+        for (Class<? extends VOGenerator> clazz : new LinkedHashSet<>(classes)) {
+            ConnectionPool pool = registry.getDataSource(registry.route(clazz, false));
+            parallelism = Math.min(parallelism, pool.getMaxSize());
+        }
+
+        return parallelism == Integer.MAX_VALUE ? 1 : parallelism;
+    }
+
+    /**
+     * This method find the vo classes annotated with @Entity in the packages, from directories and jar files
+     *
+     * @param classLoader  class loader of the vo classes
+     * @param packageNames packages to scan, the sub packages are scanned too
+     * @return the vo classes found
+     */
+    public static List<Class<? extends VOGenerator>> scan(ClassLoader classLoader, String... packageNames) {
+
+        Set<String> classNames = new LinkedHashSet<>();
+
+        for (String packageName : packageNames) {
+            String path = packageName.replace('.', '/');
+            try {
+                Enumeration<URL> resources = classLoader.getResources(path);
+                while (resources.hasMoreElements()) {
+                    URL url = resources.nextElement();
+                    if ("file".equals(url.getProtocol())) {
+                        File directory = new File(URLDecoder.decode(url.getFile(), StandardCharsets.UTF_8));
+                        scanDirectory(directory, packageName, classNames);
+
+                    } else if ("jar".equals(url.getProtocol())) {
+                        scanJar(url, path, classNames);
+                    }
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("ERROR IN SCANNING PACKAGE " + packageName + " " + e.getMessage());
+            }
+        }
+
+        List<Class<? extends VOGenerator>> classes = new ArrayList<>();
+
+        for (String className : classNames) {
+            Class<?> clazz;
+            try {
+                clazz = Class.forName(className, false, classLoader);
+            } catch (ClassNotFoundException | LinkageError e) {
+                logger.info("info SKIPPING CLASS " + className + " " + e.getMessage());
+                continue;
+            }
+
+            if (clazz.isAnnotationPresent(Entity.class) && VOGenerator.class.isAssignableFrom(clazz)) {
+                classes.add(clazz.asSubclass(VOGenerator.class));
+            }
+        }
+
+        return classes;
+    }
+
+    private static void scanDirectory(File directory, String packageName, Set<String> classNames) {
+
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+
+        //the classes of the default package have no prefix
+        String prefix = packageName.isEmpty() ? "" : packageName + ".";
+
+        for (File file : files) {
+            String name = file.getName();
+            if (file.isDirectory()) {
+                scanDirectory(file, prefix + name, classNames);
+            } else if (name.endsWith(".class") && !name.contains("$")) {
+                classNames.add(prefix + name.substring(0, name.length() - ".class".length()));
+            }
+        }
+    }
+
+    private static void scanJar(URL url, String path, Set<String> classNames) throws IOException {
+
+        URLConnection connection = url.openConnection();
+        if (!(connection instanceof JarURLConnection)) {
+            return;
+        }
+
+        String prefix = path.isEmpty() ? "" : path + "/";
+
+        JarFile jarFile = ((JarURLConnection) connection).getJarFile();
+        Enumeration<JarEntry> entries = jarFile.entries();
+        while (entries.hasMoreElements()) {
+            String name = entries.nextElement().getName();
+            if (name.startsWith(prefix) && name.endsWith(".class") && !name.contains("$")) {
+                classNames.add(name.substring(0, name.length() - ".class".length()).replace('/', '.'));
+            }
+        }
+    }
+
+    /**
+     * Result of the synchronization of one table
+     */
+    public static final class TableResult {
+
+        private final Class<? extends VOGenerator> entityClass;
+
+        private final String tableName;
+
+        private final List<String> ddl;
+
+        private final long elapsedNanos;
+
+        private final RuntimeException error;
+
+        private TableResult(Class<? extends VOGenerator> entityClass, String tableName, List<String> ddl,
+                            long elapsedNanos, RuntimeException error) {
+            this.entityClass = entityClass;
+            this.tableName = tableName;
+            this.ddl = Collections.unmodifiableList(new ArrayList<>(ddl));
+            this.elapsedNanos = elapsedNanos;
+            this.error = error;
+        }
+
+        public Class<? extends VOGenerator> getEntityClass() {
+            return entityClass;
+        }
+
+        public String getTableName() {
+            return tableName;
+        }
+
+        /**
+         * @return the ddl statements applied to the table, empty if the table was already aligned
+         */
+        public List<String> getDdl() {
+            return ddl;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedNanos / 1_000_000;
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+
+        /**
+         * @return the error of the synchronization, null if the table is synchronized
+         */
+        public RuntimeException getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return tableName + " " + getElapsedMillis() + " ms " + (isSuccess() ? ddl : "ERROR: " + error.getMessage());
+        }
+    }
+
+    private static final class SchemaThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "schema-sync-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
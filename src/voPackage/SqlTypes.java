@@ -0,0 +1,112 @@
+package voPackage;
+
+/**
+ * Mapping between the java types of the vo fields and the oracle types of the columns.
+ * It is used at runtime by VOGenerator and at compile time by the EntityProcessor
+ */
+public final class SqlTypes {
+
+    private SqlTypes() {
+    }
+
+    /**
+     * This method get the oracle type of the java type of the vo field
+     *
+     * @param javaType name of the java type (es: java.lang.String)
+     * @return oracle type with the length
+     */
+    public static String getSqlType(String javaType) {
+        if (javaType.contains(".")
+                || javaType.contains("byte")
+                || javaType.contains("short")
+                || javaType.contains("int")
+                || javaType.contains("long")
+                || javaType.contains("float")
+                || javaType.contains("double")
+                || javaType.contains("boolean")
+                || javaType.contains("char")
+                || javaType.contains("byte[]")) {
+            switch (javaType) {
+                case "byte":
+                case "java.lang.Byte":
+                    return "NUMBER(3)";
+                case "short":
+                case "java.lang.Short":
+                    return "NUMBER(5)";
+                case "int":
+                case "java.lang.Integer":
+                    return "NUMBER(10)";
+                case "long":
+                case "java.lang.Long":
+                    return "NUMBER(19)";
+                case "float":
+                case "java.lang.Float":
+                    return "BINARY_FLOAT";
+                case "double":
+                case "java.lang.Double":
+                    return "BINARY_DOUBLE";
+                case "boolean":
+                case "java.lang.Boolean":
+                    return "NUMBER(1)";
+                case "char":
+                case "java.lang.Character":
+                    return "CHAR(1)";
+                case "java.lang.String":
+                case "java.lang.Enum":
+                    return "VARCHAR2(255)";
+                case "java.util.Date":
+                case "java.sql.Date":
+                case "java.time.LocalDate":
+                    return "DATE";
+                case "java.sql.Time":
+                case "java.time.LocalTime":
+                case "java.util.Calendar":
+                case "java.util.GregorianCalendar":
+                case "java.sql.Timestamp":
+                case "java.time.LocalDateTime":
+                case "java.time.Instant":
+                    return "TIMESTAMP";
+                case "java.time.OffsetDateTime":
+                case "java.time.ZonedDateTime":
+                    return "TIMESTAMP WITH TIME ZONE";
+                case "java.math.BigInteger":
+                case "java.math.BigDecimal":
+                    return "NUMBER";
+                case "byte[]":
+                    return "RAW(2000)";
+                case "java.util.UUID":
+                    return "RAW(16)";
+                case "java.net.URL":
+                    return "VARCHAR2(2000)";
+                case "java.util.Currency":
+                    return "CHAR(3)";
+                case "java.util.Locale":
+                    return "VARCHAR2(20)";
+                case "java.util.TimeZone":
+                    return "VARCHAR2(50)";
+                case "oracle.sql.BLOB":
+                    return "BLOB";
+                default:
+                    throw new IllegalArgumentException("Tipo Java non supportato: " + javaType);
+            }
+        } else {
+            return javaType;
+        }
+    }
+
+    /**
+     * This method remove the length from the oracle type, es: VARCHAR2(255) ---> VARCHAR2
+     *
+     * @param oracleType oracle type
+     * @return oracle type without length
+     */
+    public static String replaceOracleTypeWithoutLength(String oracleType) {
+
+        if (oracleType.contains("(")) {
+            int indexOpenTonda = oracleType.indexOf("(");
+            oracleType = oracleType.substring(0, indexOpenTonda);
+        }
+
+        return oracleType;
+    }
+}
@@ -0,0 +1,170 @@
+package voPackage;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Shape of a table read from the database with a fixed number of calls, whatever the number of columns:
+ * one getColumns for nullability and defaults (empty if the table doesn't exist), one empty select for the
+ * types in the same format used by the vo, one getPrimaryKeys for the primary key columns
+ */
+final class TableSnapshot {
+
+    private final String tableName;
+
+    private final List<ColumnBean> columns;
+
+    private final Set<String> primaryKeys;
+
+    private TableSnapshot(String tableName, List<ColumnBean> columns, Set<String> primaryKeys) {
+        this.tableName = tableName;
+        this.columns = columns;
+        this.primaryKeys = primaryKeys;
+    }
+
+    /**
+     * This method get the snapshot of a table not present in the database
+     *
+     * @param tableName name of table
+     * @return snapshot without columns and primary key
+     */
+    static TableSnapshot empty(String tableName) {
+
+        return new TableSnapshot(tableName, new ArrayList<>(), new HashSet<>());
+    }
+
+    /**
+     * This method read the shape of the table from the database
+     *
+     * @param con       connection to database
+     * @param tableName name of table in database
+     * @return the snapshot, with no columns if the table doesn't exist
+     */
+    static TableSnapshot load(Connection con, String tableName) throws SQLException {
+
+        String upperTableName = tableName.toUpperCase();
+
+        try {
+            DatabaseMetaData dbMetaData = con.getMetaData();
+
+            Map<String, ColumnBean> constraints = new HashMap<>();
+
+            try (ResultSet rs = dbMetaData.getColumns(null, null, upperTableName, null)) {
+                while (rs.next()) {
+                    //the columns are read in their order because COLUMN_DEF is a LONG column in oracle
+                    String columnName = rs.getString("COLUMN_NAME");
+                    String defaultValue = rs.getString("COLUMN_DEF");
+                    boolean isNotNull = "NO".equalsIgnoreCase(rs.getString("IS_NULLABLE"));
+
+                    //upper case as the defaults written by getAlterTableADDStatement, trimmed because oracle keeps the spaces after the value
+                    if (defaultValue != null) {
+                        defaultValue = defaultValue.trim().replace("'", "").toUpperCase();
+                        if ("NULL".equals(defaultValue)) {
+                            defaultValue = "";
+                        }
+                    } else {
+                        defaultValue = "";
+                    }
+
+                    ColumnBean constraint = new ColumnBean();
+                    constraint.setName(columnName);
+                    constraint.setNotNull(isNotNull);
+                    constraint.setDefaultValue(defaultValue);
+                    constraints.putIfAbsent(columnName, constraint);
+                }
+            }
+
+            if (constraints.isEmpty()) {
+                return empty(tableName);
+            }
+
+            List<ColumnBean> columns = new ArrayList<>();
+
+            try (Statement st = con.createStatement();
+                 ResultSet rs = st.executeQuery("SELECT * FROM " + tableName + " WHERE 1 = 0")) {
+
+                ResultSetMetaData metaData = rs.getMetaData();
+                int columnCount = metaData.getColumnCount();
+
+                for (int i = 1; i <= columnCount; i++) {
+                    ColumnBean fieldBean = new ColumnBean();
+
+                    String nameOfColumn = metaData.getColumnName(i);
+                    int typeSize = metaData.getPrecision(i);
+
+                    String type = "";
+                    if (typeSize == 0) {
+                        type = metaData.getColumnTypeName(i);
+                    } else {
+                        type = metaData.getColumnTypeName(i) + "(" + typeSize + ")";
+                    }
+
+                    fieldBean.setName(nameOfColumn);
+                    fieldBean.setType(type);
+
+                    ColumnBean constraint = constraints.get(nameOfColumn);
+                    if (constraint != null) {
+                        fieldBean.setNotNull(constraint.isNotNull());
+                        fieldBean.setDefaultValue(constraint.getDefaultValue());
+                    } else {
+                        fieldBean.setDefaultValue("");
+                    }
+
+                    columns.add(fieldBean);
+                }
+            }
+
+            Set<String> primaryKeys = new HashSet<>();
+
+            try (ResultSet rs = dbMetaData.getPrimaryKeys(null, null, upperTableName)) {
+                while (rs.next()) {
+                    String columnName = rs.getString("COLUMN_NAME");
+                    if (columnName != null) {
+                        primaryKeys.add(columnName.toUpperCase());
+                    }
+                }
+            }
+
+            return new TableSnapshot(tableName, columns, primaryKeys);
+
+        } catch (SQLException e) {
+            throw new SQLException("info IN GETTING METADATA FORM DB: " + tableName + " " + e.getMessage(), e);
+        }
+    }
+
+    String getTableName() {
+        return tableName;
+    }
+
+    boolean exists() {
+        return !columns.isEmpty();
+    }
+
+    /**
+     * @return a new list with the columns of the table, in the order of the table
+     */
+    List<ColumnBean> getColumns() {
+        return new ArrayList<>(columns);
+    }
+
+    boolean isPrimaryKey(String columnName) {
+        return columnName != null && primaryKeys.contains(columnName.toUpperCase());
+    }
+
+    /**
+     * This method keep the snapshot aligned after the DROP of the primary key constraint
+     */
+    void dropPrimaryKey() {
+        primaryKeys.clear();
+    }
+}
@@ -1,7 +1,7 @@
 package voPackage;
 
-import javax.sql.rowset.CachedRowSet;
-import javax.sql.rowset.RowSetProvider;
+import connectionPackage.DataSourceRegistry;
+
 import java.io.InputStream;
 import java.lang.reflect.Field;
 import java.sql.*;
@@ -15,26 +15,126 @@ public class VOGenerator {
     protected static final Logger logger = Logger.getLogger(VOGenerator.class.getName());
 
     /**
-     * this class should be extended at the vo classes for the manipulation field in database
+     * values of the columns when the vo was read from the database, see DirtyTracker
+     */
+    transient Object[] loadedState;
+
+    /**
+     * this class should be extended at the vo classes for the manipulation field in database.
+     * The table of the vo is reconciled with the database only the first time the class is built,
+     * the next constructions don't do any I/O
      */
     public VOGenerator() {
-        Connection con = null;
-        try {
-            //con = DataSourceUtil.getInstance().getConnection();
-            con = getConnection();
-            if (con != null) {
-                con.setAutoCommit(false);
-                createTable(getClass(), con);
-                con.commit();
+        Class<? extends VOGenerator> clazz = getClass();
+        if (!SchemaRegistry.isSynchronized(clazz)) {
+            synchronized (SchemaRegistry.lockFor(clazz)) {
+                if (!SchemaRegistry.isSynchronized(clazz)) {
+                    sync(clazz);
+                }
             }
-        } catch (Exception e) {
+        }
+    }
+
+    /**
+     * This method reconcile the table of the vo class with the database and mark the class as synchronized.
+     * If the schema fingerprint is enabled and the column model of the vo is unchanged since the last diff,
+     * the table is not read from the database
+     *
+     * @param clazz value object class
+     * @return the ddl statements applied to the table, empty if the table was already aligned
+     */
+    public static List<String> sync(Class<? extends VOGenerator> clazz) {
+
+        return sync(clazz, false);
+    }
+
+    /**
+     * This method reconcile the table of the vo class with the database and mark the class as synchronized
+     *
+     * @param clazz value object class
+     * @param force true to do the schema diff also if the fingerprint of the vo is unchanged
+     * @return the ddl statements applied to the table, empty if the table was already aligned
+     */
+    public static List<String> sync(Class<? extends VOGenerator> clazz, boolean force) {
+
+        synchronized (SchemaRegistry.lockFor(clazz)) {
+            SchemaFingerprints fingerprints = SchemaFingerprints.getInstance();
+            String fingerprintKey = null;
+            String fingerprint = null;
+
+            if (fingerprints != null) {
+                fingerprintKey = getFingerprintKey(clazz);
+                fingerprint = SchemaFingerprints.fingerprint(getTableName(clazz),
+                        getColumns(clazz, TableSnapshot.empty(getTableName(clazz))), getPrimaryKey(clazz));
+
+                if (!force && fingerprints.matches(fingerprintKey, fingerprint)) {
+                    logger.info("TABLE " + getTableName(clazz) + " UNCHANGED, SKIPPING SCHEMA DIFF");
+                    SchemaRegistry.markSynchronized(clazz);
+                    return Collections.emptyList();
+                }
+            }
+
+            List<String> ddl = Collections.emptyList();
+            Connection con = null;
             try {
+                con = getConnection(clazz);
                 if (con != null) {
-                    con.rollback();
+                    con.setAutoCommit(false);
+                    ddl = getSchemaChangePlan(clazz, con).apply(con);
+                    con.commit();
+
+                    if (fingerprints != null) {
+                        fingerprints.store(fingerprintKey, fingerprint);
+                    }
+                }
+                SchemaRegistry.markSynchronized(clazz);
+                return ddl;
+
+            } catch (Exception e) {
+                try {
+                    if (con != null) {
+                        con.rollback();
+                    }
+                } catch (SQLException ex) {
+                    logger.info("info IN ROLLBACK TRANSACTIONS " + ex.getMessage());
+                }
+                if (fingerprints != null) {
+                    fingerprints.remove(fingerprintKey);
+                }
+                throw new RuntimeException(e.getMessage());
+
+            } finally {
+                try {
+                    if (con != null) {
+                        con.close();
+                    }
+                } catch (SQLException e) {
+                    logger.info("info IN CLOSING CONNECTION " + e.getMessage());
                 }
-            } catch (SQLException ex) {
-                logger.info("info IN ROLLBACK TRANSACTIONS " + ex.getMessage());
             }
+        }
+    }
+
+    /**
+     * This method do the schema diff of the vo class without changing the database (dry run),
+     * the plan can be printed as migration script or applied later
+     *
+     * @param clazz value object class
+     * @return the ddl statements needed to align the table
+     * @throws IllegalStateException if no connection is configured for the vo
+     */
+    public static SchemaChangePlan plan(Class<? extends VOGenerator> clazz) {
+
+        Connection con = null;
+        try {
+            con = getConnection(clazz);
+            if (con == null) {
+                //an empty plan would look like a table already aligned
+                throw new IllegalStateException("NO CONNECTION FOR TABLE " + getTableName(clazz) + ", THE SCHEMA CAN'T BE COMPARED");
+            }
+            return getSchemaChangePlan(clazz, con);
+
+        } catch (SQLException e) {
             throw new RuntimeException(e.getMessage());
 
         } finally {
@@ -55,7 +155,7 @@ public class VOGenerator {
      * @param clazz value object class
      * @return table name
      */
-    private String getTableName(Class<?> clazz) {
+    private static String getTableName(Class<?> clazz) {
 
         String tableName = null;
 
@@ -76,7 +176,7 @@ public class VOGenerator {
      * @param clazz value object class
      * @return list column field annotation
      */
-    private List<ColumnBean> getColumns(Class<?> clazz, Connection con) {
+    private static List<ColumnBean> getColumns(Class<?> clazz, TableSnapshot snapshot) {
 
         List<ColumnBean> listaColumn = new ArrayList<>();
 
@@ -93,13 +193,13 @@ public class VOGenerator {
                 }
 
                 String javaTypeField = field.getType().getName();
-                String oracleCtrl = replaceOracleTypeWithoutLength(getSqlType(javaTypeField));
+                String oracleCtrl = SqlTypes.replaceOracleTypeWithoutLength(SqlTypes.getSqlType(javaTypeField));
 
                 String columnType = column.type();
                 if (columnType == null || columnType.isEmpty()) {
                     Class<?> typeColumn = field.getType();
                     columnType = typeColumn.getName();
-                    columnType = getSqlType(columnType);
+                    columnType = SqlTypes.getSqlType(columnType);
                 }
 
                 if (!columnType.contains(oracleCtrl)) {
@@ -112,14 +212,10 @@ public class VOGenerator {
 
                 columnBean.setName(columnName);
                 columnBean.setType(columnType);
-                try {
-                    if (isPkFromDb(columnName, con)) {
-                        columnBean.setNotNull(true);
-                    } else {
-                        columnBean.setNotNull(columnNotNull);
-                    }
-                } catch (SQLException e) {
-                    throw new RuntimeException(e.getMessage());
+                if (snapshot.isPrimaryKey(columnName)) {
+                    columnBean.setNotNull(true);
+                } else {
+                    columnBean.setNotNull(columnNotNull);
                 }
                 columnBean.setDefaultValue(columnDefaultValue);
 
@@ -136,7 +232,7 @@ public class VOGenerator {
      * @param clazz value object class
      * @return list of primary key annotated in vo
      */
-    private List<String> getPrimaryKey(Class<?> clazz) {
+    private static List<String> getPrimaryKey(Class<?> clazz) {
 
         List<String> primaryKey = new ArrayList<>();
 
@@ -157,10 +253,10 @@ public class VOGenerator {
      * @param clazz value object class
      * @return create table query
      */
-    private String getStrinSQlCreateTable(Class<?> clazz, Connection con) {
+    private static String getStrinSQlCreateTable(Class<?> clazz, TableSnapshot snapshot) {
 
         String tableName = getTableName(clazz);
-        List<ColumnBean> listaColumns = getColumns(clazz, con);
+        List<ColumnBean> listaColumns = getColumns(clazz, snapshot);
         List<String> pkList = getPrimaryKey(clazz);
 
         StringBuilder builder = new StringBuilder();
@@ -205,132 +301,6 @@ public class VOGenerator {
         return builder.toString();
     }
 
-    /**
-     * This method check if exist table in databse
-     *
-     * @param con       connection to database
-     * @param tableName name of table in database
-     * @return true if exist
-     */
-    private boolean existTable(Connection con, String tableName) throws SQLException {
-
-        boolean existTable = false;
-        ResultSet rs = null;
-        try {
-            DatabaseMetaData metaData = con.getMetaData();
-            rs = metaData.getTables(null, null, tableName.toUpperCase(), null);
-
-            if (rs != null && rs.next()) {
-                existTable = true;
-            }
-        } catch (SQLException e) {
-            throw new SQLException("info IN CHECKING TABLE IF EXISTS " + e.getMessage());
-
-        } finally {
-            try {
-                if (rs != null) {
-                    rs.close();
-                }
-            } catch (SQLException e) {
-                logger.info("info IN CLOSING RESOURCES " + e.getMessage());
-            }
-        }
-
-        return existTable;
-    }
-
-    /**
-     * This method get the all field form database with all constraints
-     *
-     * @param con   connection to database
-     * @param clazz value object class
-     * @return list of all column in database
-     */
-    private List<ColumnBean> getFieldFromDb(Connection con, Class<?> clazz) throws SQLException {
-
-        List<ColumnBean> fieldsNotPresentInVO = new ArrayList<>();
-
-        String sql = "SELECT * FROM " + getTableName(clazz) + " FETCH FIRST 1 ROW ONLY";
-
-        Statement st = null;
-        ResultSet rs = null;
-
-        ResultSet columns = null;
-
-        try {
-            st = con.createStatement();
-            rs = st.executeQuery(sql);
-
-            if (rs != null) {
-                ResultSetMetaData metaData = rs.getMetaData();
-                int columnCount = metaData.getColumnCount();
-
-                DatabaseMetaData dbMetaData = con.getMetaData();
-                String tableName = getTableName(clazz);
-
-                for (int i = 1; i <= columnCount; i++) {
-                    ColumnBean fieldBean = new ColumnBean();
-
-                    String nameOfColumn = metaData.getColumnName(i);
-                    int typeSize = metaData.getPrecision(i);
-
-                    String type = "";
-                    if (typeSize == 0) {
-                        type = metaData.getColumnTypeName(i);
-                    } else {
-                        type = metaData.getColumnTypeName(i) + "(" + typeSize + ")";
-                    }
-
-                    fieldBean.setName(nameOfColumn);
-                    fieldBean.setType(type);
-
-                    columns = dbMetaData.getColumns(null, null, tableName, nameOfColumn);
-
-                    CachedRowSet cachedRowSet = RowSetProvider.newFactory().createCachedRowSet();
-                    cachedRowSet.populate(columns);
-
-                    if (cachedRowSet.next()) {
-                        boolean isNullable = "NO".equalsIgnoreCase(cachedRowSet.getString("IS_NULLABLE"));
-                        String defaultValue = cachedRowSet.getString("COLUMN_DEF");
-                        if (defaultValue != null) {
-                            defaultValue = defaultValue.replace("'", "");
-
-                            if ("NULL".equals(defaultValue)) {
-                                defaultValue = "";
-                            }
-                        } else {
-                            defaultValue = "";
-                        }
-
-                        fieldBean.setDefaultValue(defaultValue.toUpperCase());
-                        fieldBean.setNotNull(isNullable);
-
-                        cachedRowSet.close();
-                    }
-
-                    fieldsNotPresentInVO.add(fieldBean);
-                }
-            }
-        } catch (SQLException e) {
-            throw new SQLException("info IN GETTING METADATA FORM DB: " + e.getMessage());
-
-        } finally {
-            try {
-                if (rs != null) {
-                    rs.close();
-                    st.close();
-                }
-                if (columns != null) {
-                    columns.close();
-                }
-            } catch (SQLException e) {
-                logger.info("info IN CLOSING RESOURCES");
-            }
-        }
-
-        return fieldsNotPresentInVO;
-    }
-
     /**
      * This method get all constraints column by column name in databse
      *
@@ -338,13 +308,13 @@ public class VOGenerator {
      * @param columnName name of column in database
      * @return the column object
      */
-    private ColumnBean getConstraintsColumn(Connection con, String columnName) throws SQLException {
+    private static ColumnBean getConstraintsColumn(Class<?> clazz, Connection con, String columnName) throws SQLException {
 
         ColumnBean columnBean = new ColumnBean();
 
         try {
             DatabaseMetaData dbMetaData = con.getMetaData();
-            ResultSet rs = dbMetaData.getColumns(null, null, getTableName(getClass()), columnName);
+            ResultSet rs = dbMetaData.getColumns(null, null, getTableName(clazz), columnName);
 
             if (rs != null && rs.next()) {
                 boolean isNullable = "NO".equalsIgnoreCase(rs.getString("IS_NULLABLE"));
@@ -370,7 +340,15 @@ public class VOGenerator {
         return columnBean;
     }
 
-    private void createTable(Class<?> clazz, Connection con) throws SQLException {
+    /**
+     * This method compare the vo with the table in the database and make the ddl to create the table or
+     * align it with the fields of the vo, nothing is executed
+     *
+     * @param clazz value object class
+     * @param con   connection to database
+     * @return the plan of the ddl statements
+     */
+    private static SchemaChangePlan getSchemaChangePlan(Class<?> clazz, Connection con) throws SQLException {
 
         String tableName = getTableName(clazz);
 
@@ -379,17 +357,18 @@ public class VOGenerator {
         boolean isAddColumn = false;
         boolean isDropColumn = false;
 
-        Statement st = con.createStatement();
+        SchemaChangePlan plan = new SchemaChangePlan(tableName);
 
         try {
-            if (!existTable(con, tableName)) {
-                String sql = getStrinSQlCreateTable(clazz, con);
-                logger.info("CREATING TABLE " + tableName + ": " + sql);
-                st.executeUpdate(sql);
+            TableSnapshot snapshot = TableSnapshot.load(con, tableName);
+
+            if (!snapshot.exists()) {
+                String sql = getStrinSQlCreateTable(clazz, snapshot);
+                plan.add(sql);
 
             } else {
-                List<ColumnBean> getAllFields = getColumns(clazz, con);
-                List<ColumnBean> getFieldsFromDB = getFieldFromDb(con, clazz);
+                List<ColumnBean> getAllFields = getColumns(clazz, snapshot);
+                List<ColumnBean> getFieldsFromDB = snapshot.getColumns();
 
                 if (!getAllFields.isEmpty() && !getFieldsFromDB.isEmpty()) {
                     if (getAllFields.size() < getFieldsFromDB.size()) {
@@ -407,10 +386,10 @@ public class VOGenerator {
                         //drop primary key nel caso in cui la colonna da togliere è una pk
                         for (int i = 0; i < getFieldsFromDB.size(); i++) {
                             String fieldName = getFieldsFromDB.get(i).getName();
-                            if (isPkFromDb(fieldName, con) && !skipDropPk) {
-                                String droPk = getDropPk();
-                                logger.info("DROPPING PRIMARY KEY/s: " + droPk);
-                                st.executeUpdate(droPk);
+                            if (snapshot.isPrimaryKey(fieldName) && !skipDropPk) {
+                                String droPk = getDropPk(clazz);
+                                plan.add(droPk);
+                                snapshot.dropPrimaryKey();
                                 skipDropPk = true;
                             }
                         }
@@ -441,38 +420,34 @@ public class VOGenerator {
                             boolean columnVONotNull = getAllFields.get(i).isNotNull();
 
                             String fieldNameDB = getFieldsFromDB.get(i).getName();
+                            String columnKey = fieldNameDB;
                             String typeDB = getFieldsFromDB.get(i).getType();
                             String columnDBDefaultValue = getFieldsFromDB.get(i).getDefaultValue();
                             boolean columnDBNotNull = getFieldsFromDB.get(i).isNotNull();
 
                             if (fieldNameDB != null) {
                                 //rimuovo il not null value se nel vo non è presente ma a db c'è oppure se è diverso fra db è vo (lo rimuovo a db)
-                                if (fieldNameDB.equals(fieldNameFromVO) && !isPkFromDb(fieldNameDB, con) && columnDBNotNull && !columnVONotNull) {
+                                if (fieldNameDB.equals(fieldNameFromVO) && !snapshot.isPrimaryKey(fieldNameDB) && columnDBNotNull && !columnVONotNull) {
                                     String sqlDropNotNull = getDropNotNull(fieldNameDB);
-                                    logger.info("DROPPING NOT NULL CONSTRAINT: " + sqlDropNotNull);
-                                    st.executeUpdate(sqlDropNotNull);
+                                    plan.modify(columnKey, sqlDropNotNull);
                                     columnDBNotNull = false;
                                 }
                             }
 
                             //cambia il tipo della colonna
                             if (!typeVO.equals(typeDB)) {
-                                String modifyType = getModifyTypeStatement(fieldNameDB, typeVO);
-                                logger.info("MODIFYING TYPE STATEMENT: " + modifyType);
-                                st.executeUpdate(modifyType);
+                                String modifyType = getModifyType(fieldNameDB, typeVO);
+                                plan.modify(columnKey, modifyType);
                             }
                             //cambia il nome della colonna
                             if (!fieldNameFromVO.equals(fieldNameDB)) {
-                                String modifyName = getModifyNameStatement(fieldNameDB, fieldNameFromVO);
-                                logger.info("MODIFYING NAME STATEMENT: " + modifyName);
-                                st.executeUpdate(modifyName);
+                                plan.rename(columnKey, fieldNameDB, fieldNameFromVO);
                                 fieldNameDB = fieldNameFromVO;
                             }
 
                             if (columnVONotNull && !columnDBNotNull) {
                                 String sqlAddNotNull = getAddNotNull(fieldNameFromVO);
-                                logger.info("ADDING NOT NULL CONSTRAINT: " + sqlAddNotNull);
-                                st.executeUpdate(sqlAddNotNull);
+                                plan.modify(columnKey, sqlAddNotNull);
 
                                 String defaultValueIfIsNotNull = null;
                                 if(!typeVO.contains("NUMBER")){
@@ -481,29 +456,26 @@ public class VOGenerator {
                                     defaultValueIfIsNotNull = "0";
                                 }
                                 String addDefaultValue = getAddDefaultValue(fieldNameFromVO, defaultValueIfIsNotNull, typeVO);
-                                logger.info("ADDING DEFAULT VALUE CONSTRAINT: " + addDefaultValue);
-                                st.executeUpdate(addDefaultValue);
+                                plan.modify(columnKey, addDefaultValue);
 
-                            } else if (!columnVONotNull && !isPkFromDb(fieldNameDB, con) && !columnVODefaultValue.isEmpty() && columnDBNotNull) {
+                            } else if (!columnVONotNull && !snapshot.isPrimaryKey(fieldNameDB) && !columnVODefaultValue.isEmpty() && columnDBNotNull) {
                                 String sqlDropNotNull = getDropNotNull(fieldNameDB);
-                                logger.info("DROPPING NOT NULL CONSTRAINT: " + sqlDropNotNull);
-                                st.executeUpdate(sqlDropNotNull);
+                                plan.modify(columnKey, sqlDropNotNull);
                             }
 
-                            if ((!columnVODefaultValue.isEmpty()) && !columnVODefaultValue.equals(columnDBDefaultValue)) {
+                            //the default of the database is trimmed and upper case
+                            if ((!columnVODefaultValue.isEmpty()) && !columnVODefaultValue.trim().equalsIgnoreCase(columnDBDefaultValue)) {
                                 if (typeVO.contains("NUMBER") && !columnVODefaultValue.matches("^-?[0-9]+$")) {
                                     throw new SQLException("cannot adding default value: " + columnVODefaultValue + " for " + fieldNameFromVO + " because the type is " + typeVO);
 
                                 }else {
                                     String addDefaultValue = getAddDefaultValue(fieldNameFromVO, columnVODefaultValue, typeVO);
-                                    logger.info("ADDING DEFAULT VALUE CONSTRAINT: " + addDefaultValue);
-                                    st.executeUpdate(addDefaultValue);
+                                    plan.modify(columnKey, addDefaultValue);
                                 }
-                            } else if(!isPk(fieldNameFromVO) && columnVODefaultValue.isEmpty() && !columnDBNotNull && !columnDBDefaultValue.isEmpty()){
+                            } else if(!isPk(clazz, fieldNameFromVO) && columnVODefaultValue.isEmpty() && !columnDBNotNull && !columnDBDefaultValue.isEmpty()){
                                 String dropDefaultValue = getDropDefaultValue(fieldNameDB, typeDB);
-                                logger.info("DROPPING DEFAULT VALUE CONSTRAINT: " + dropDefaultValue);
-                                st.executeUpdate(dropDefaultValue);
-                            }else if(isPk(fieldNameFromVO)){
+                                plan.modify(columnKey, dropDefaultValue);
+                            }else if(isPk(clazz, fieldNameFromVO)){
                                 String defaultValueIfIsNotNull = null;
                                 if(!typeVO.contains("NUMBER")){
                                     defaultValueIfIsNotNull = "";
@@ -511,8 +483,7 @@ public class VOGenerator {
                                     defaultValueIfIsNotNull = "0";
                                 }
                                 String addDefaultValue = getAddDefaultValue(fieldNameFromVO, defaultValueIfIsNotNull, typeVO);
-                                logger.info("ADDING DEFAULT VALUE CONSTRAINT: " + addDefaultValue);
-                                st.executeUpdate(addDefaultValue);
+                                plan.modify(columnKey, addDefaultValue);
                             }
                         }
                     }
@@ -520,8 +491,7 @@ public class VOGenerator {
                     if (isAddColumn) {
                         String alterADD = getAlterTableADDStatement(clazz, getAllFields);
                         if (alterADD != null && !alterADD.isEmpty()) {
-                            logger.info("ADDING COLUMN/s: " + alterADD);
-                            st.executeUpdate(alterADD);
+                            plan.add(alterADD);
                         }
                     }
 
@@ -529,90 +499,75 @@ public class VOGenerator {
                         String alterDropColumn = getDropColumn(clazz, getFieldsFromDB);
                         //drop field
                         if (alterDropColumn != null && !alterDropColumn.isEmpty()) {
-                            logger.info("DROPPING COLUMN/s: " + alterDropColumn);
-                            st.executeUpdate(alterDropColumn);
+                            plan.add(alterDropColumn);
                         }
                     }
 
-                    List<String> fieldsFromDbPk = getFieldsFromDbPk(con, getFieldsFromDB);
-                    List<String> primaryKeyVO = getPrimaryKey(getClass());
+                    List<String> fieldsFromDbPk = getFieldsFromDbPk(snapshot, getFieldsFromDB);
+                    List<String> primaryKeyVO = getPrimaryKey(clazz);
 
                     if (0 < fieldsFromDbPk.size() && primaryKeyVO.size() > 0) {
                         if ((fieldsFromDbPk.size() != primaryKeyVO.size()) || !(primaryKeyVO.equals(fieldsFromDbPk))) {
-                            String dropPkStatement = getDropPk();
-                            logger.info("DROPPING PRIMARY KEY: " + dropPkStatement);
-                            st.executeUpdate(dropPkStatement);
+                            String dropPkStatement = getDropPk(clazz);
+                            plan.add(dropPkStatement);
+                            snapshot.dropPrimaryKey();
                         }
                     }
 
                     if (0 < fieldsFromDbPk.size() && primaryKeyVO.size() == 0) {
-                        String dropPkStatement = getDropPk();
-                        logger.info("DROPPING PRIMARY KEY: " + dropPkStatement);
-                        st.executeUpdate(dropPkStatement);
+                        String dropPkStatement = getDropPk(clazz);
+                        plan.add(dropPkStatement);
+                        snapshot.dropPrimaryKey();
                     }
 
                     if (0 == fieldsFromDbPk.size() && primaryKeyVO.size() > 0) {
-                        String addPkStatement = getAddPK(getPrimaryKey(getClass()));
-                        logger.info("ADDING PRIMARY KEY: " + addPkStatement);
-                        st.executeUpdate(addPkStatement);
+                        String addPkStatement = getAddPK(clazz, getPrimaryKey(clazz));
+                        plan.add(addPkStatement);
                     }
 
                 } else if (getAllFields.isEmpty()) {
-                    logger.info("VO: " + getTableName(getClass()) + " HASN'T ATTRIBUTES");
+                    logger.info("VO: " + getTableName(clazz) + " HASN'T ATTRIBUTES");
                 }
             }
 
         } catch (SQLException e) {
-            throw new SQLException("info CREATING OR UPDATING VO: " + getTableName(getClass()) + " EXCEPTION IS: " + e.getMessage());
-
-        } finally {
-            st.close();
+            throw new SQLException("info CREATING OR UPDATING VO: " + getTableName(clazz) + " EXCEPTION IS: " + e.getMessage());
         }
+
+        return plan;
     }
 
-    private String getDropTable() {
+    private static String getDropTable(Class<?> clazz) {
 
-        return "DROP TABLE " + getTableName(getClass());
+        return "DROP TABLE " + getTableName(clazz);
     }
 
-    private String getDropNotNull(String fieldName) {
+    private static String getDropNotNull(String fieldName) {
 
-        return "ALTER TABLE " +
-                getTableName(getClass()) +
-                " MODIFY " +
-                fieldName +
-                " NULL ";
+        return fieldName +
+                " NULL";
     }
 
-    private String getAddNotNull(String fieldName) {
+    private static String getAddNotNull(String fieldName) {
 
-        return "ALTER TABLE " +
-                getTableName(getClass()) +
-                " MODIFY " +
-                fieldName +
-                " NOT NULL ";
+        return fieldName +
+                " NOT NULL";
     }
 
-    private String getDropDefaultValue(String fieldName, String columnType) {
+    private static String getDropDefaultValue(String fieldName, String columnType) {
 
-        return "ALTER TABLE " +
-                getTableName(getClass()) +
-                " MODIFY " +
-                fieldName +
+        return fieldName +
                 " " +
                 columnType +
                 " DEFAULT " +
                 "NULL";
     }
 
-    private String getAddDefaultValue(String fieldName, String defaultValue, String columnType) {
+    private static String getAddDefaultValue(String fieldName, String defaultValue, String columnType) {
 
         StringBuilder builder = new StringBuilder();
 
-        builder.append("ALTER TABLE ")
-                .append(getTableName(getClass()))
-                .append(" MODIFY ")
-                .append(fieldName)
+        builder.append(fieldName)
                 .append(" ")
                 .append(columnType)
                 .append(" DEFAULT ");
@@ -627,7 +582,7 @@ public class VOGenerator {
         return builder.toString();
     }
 
-    private String getAlterTableADDStatement(Class<?> clazz, List<ColumnBean> fieldsList) {
+    private static String getAlterTableADDStatement(Class<?> clazz, List<ColumnBean> fieldsList) {
 
         StringBuilder builder = new StringBuilder();
 
@@ -681,7 +636,7 @@ public class VOGenerator {
         return builder.toString();
     }
 
-    private String getDropColumn(Class<?> clazz, List<ColumnBean> fieldsList) {
+    private static String getDropColumn(Class<?> clazz, List<ColumnBean> fieldsList) {
 
         StringBuilder builder = new StringBuilder();
 
@@ -715,86 +670,7 @@ public class VOGenerator {
         return builder.toString();
     }
 
-    private String getSqlType(String javaType) {
-        if (javaType.contains(".")
-                || javaType.contains("byte")
-                || javaType.contains("short")
-                || javaType.contains("int")
-                || javaType.contains("long")
-                || javaType.contains("float")
-                || javaType.contains("double")
-                || javaType.contains("boolean")
-                || javaType.contains("char")
-                || javaType.contains("byte[]")) {
-            switch (javaType) {
-                case "byte":
-                case "java.lang.Byte":
-                    return "NUMBER(3)";
-                case "short":
-                case "java.lang.Short":
-                    return "NUMBER(5)";
-                case "int":
-                case "java.lang.Integer":
-                    return "NUMBER(10)";
-                case "long":
-                case "java.lang.Long":
-                    return "NUMBER(19)";
-                case "float":
-                case "java.lang.Float":
-                    return "BINARY_FLOAT";
-                case "double":
-                case "java.lang.Double":
-                    return "BINARY_DOUBLE";
-                case "boolean":
-                case "java.lang.Boolean":
-                    return "NUMBER(1)";
-                case "char":
-                case "java.lang.Character":
-                    return "CHAR(1)";
-                case "java.lang.String":
-                case "java.lang.Enum":
-                    return "VARCHAR2(255)";
-                case "java.util.Date":
-                case "java.sql.Date":
-                case "java.time.LocalDate":
-                    return "DATE";
-                case "java.sql.Time":
-                case "java.time.LocalTime":
-                case "java.util.Calendar":
-                case "java.util.GregorianCalendar":
-                case "java.sql.Timestamp":
-                case "java.time.LocalDateTime":
-                case "java.time.Instant":
-                    return "TIMESTAMP";
-                case "java.time.OffsetDateTime":
-                case "java.time.ZonedDateTime":
-                    return "TIMESTAMP WITH TIME ZONE";
-                case "java.math.BigInteger":
-                case "java.math.BigDecimal":
-                    return "NUMBER";
-                case "byte[]":
-                    return "RAW(2000)";
-                case "java.util.UUID":
-                    return "RAW(16)";
-                case "java.net.URL":
-                    return "VARCHAR2(2000)";
-                case "java.util.Currency":
-                    return "CHAR(3)";
-                case "java.util.Locale":
-                    return "VARCHAR2(20)";
-                case "java.util.TimeZone":
-                    return "VARCHAR2(50)";
-                case "oracle.sql.BLOB":
-                    return "BLOB";
-                default:
-                    throw new IllegalArgumentException("Tipo Java non supportato: " + javaType);
-            }
-        } else {
-            return javaType;
-        }
-    }
-
-    private Object getJavaObject(String oracleType) {
+    private static Object getJavaObject(String oracleType) {
         if (!oracleType.contains("VARCHAR")) {
             switch (oracleType) {
                 case "NUMBER(3)":
@@ -833,11 +709,11 @@ public class VOGenerator {
         }
     }
 
-    private boolean isPk(String fieldName) {
+    private static boolean isPk(Class<?> clazz, String fieldName) {
 
         boolean isPk = false;
 
-        Field[] fields = getClass().getDeclaredFields();
+        Field[] fields = clazz.getDeclaredFields();
 
         for (Field field : fields) {
             field.setAccessible(true);
@@ -852,56 +728,25 @@ public class VOGenerator {
         return isPk;
     }
 
-    private boolean isPkFromDb(String fieldNameDb, Connection con) throws SQLException {
-
-        boolean isPk = false;
-        ResultSet rs = null;
-
-        try {
-            DatabaseMetaData metaData = con.getMetaData();
-
-            rs = metaData.getPrimaryKeys(null, null, getTableName(getClass()));
-
-            while (rs != null && rs.next()) {
-                String columnName = rs.getString("COLUMN_NAME");
-
-                if (fieldNameDb != null && !fieldNameDb.isEmpty()) {
-                    if (columnName != null && columnName.equalsIgnoreCase(fieldNameDb)) {
-                        isPk = true;
-                    }
-                }
-            }
-        } catch (SQLException e) {
-            throw new SQLException("info DURING CHECK IF " + fieldNameDb + " IS A PRIMARY KEY: " + e.getMessage());
-
-        } finally {
-            if (rs != null) {
-                rs.close();
-            }
-        }
-
-        return isPk;
-    }
-
-    private String getDropPk() {
+    private static String getDropPk(Class<?> clazz) {
 
         return "ALTER TABLE " +
-                getTableName(getClass()) +
+                getTableName(clazz) +
                 " " +
                 "DROP CONSTRAINT " +
-                "pk_" + getTableName(getClass());
+                "pk_" + getTableName(clazz);
     }
 
-    private String getAddPK(List<String> pklist) {
+    private static String getAddPK(Class<?> clazz, List<String> pklist) {
 
         StringBuilder builder = new StringBuilder();
 
         if (pklist != null) {
             builder.append("ALTER TABLE ")
-                    .append(getTableName(getClass()))
+                    .append(getTableName(clazz))
                     .append(" ADD CONSTRAINT ")
                     .append("pk_")
-                    .append(getTableName(getClass()))
+                    .append(getTableName(clazz))
                     .append(" PRIMARY KEY ")
                     .append("(");
 
@@ -917,7 +762,7 @@ public class VOGenerator {
         return builder.toString();
     }
 
-    private String getFieldType(String typeClass) {
+    private static String getFieldType(String typeClass) {
 
         String returnType = null;
 
@@ -932,31 +777,24 @@ public class VOGenerator {
         return returnType;
     }
 
-    private List<String> getFieldsFromDbPk(Connection con, List<ColumnBean> getFieldsFromDB) {
+    private static List<String> getFieldsFromDbPk(TableSnapshot snapshot, List<ColumnBean> getFieldsFromDB) {
 
         List<String> fieldsFromDbName = new ArrayList<>();
 
-        try {
-            //List<ColumnBean> getFieldsFromDB = getFieldFromDb(con, getClass());
-
-            for (ColumnBean bean : getFieldsFromDB) {
-                if (isPkFromDb(bean.getName(), con)) {
-                    fieldsFromDbName.add(bean.getName().toUpperCase());
-                }
-
+        for (ColumnBean bean : getFieldsFromDB) {
+            if (snapshot.isPrimaryKey(bean.getName())) {
+                fieldsFromDbName.add(bean.getName().toUpperCase());
             }
-        } catch (SQLException e) {
-            throw new RuntimeException(e.getMessage());
         }
 
         return fieldsFromDbName;
     }
 
-    private String getDefaultValueVOByColumnName(String columnName) {
+    private static String getDefaultValueVOByColumnName(Class<?> clazz, String columnName) {
 
         String defaultValue = null;
 
-        Field[] fields = getClass().getDeclaredFields();
+        Field[] fields = clazz.getDeclaredFields();
 
         for (Field field : fields) {
             if (field.isAnnotationPresent(Column.class)) {
@@ -972,34 +810,19 @@ public class VOGenerator {
         return defaultValue;
     }
 
-    private String getModifyTypeStatement(String columnName, String newType) {
+    private static String getModifyType(String columnName, String newType) {
 
-        return "ALTER TABLE " +
-                getTableName(getClass()) +
-                " MODIFY " +
-                "(" +
-                columnName +
+        return columnName +
                 " " +
-                newType +
-                ")";
-    }
-
-    private String getModifyNameStatement(String oldName, String newName) {
-
-        return "ALTER TABLE " +
-                getTableName(getClass()) +
-                " RENAME COLUMN " +
-                oldName +
-                " TO " +
-                newName;
+                newType;
     }
 
 
-    private boolean isPresentTypeAnnotation(String fieldName) {
+    private static boolean isPresentTypeAnnotation(Class<?> clazz, String fieldName) {
 
         boolean isPresent = false;
 
-        Field[] fields = getClass().getDeclaredFields();
+        Field[] fields = clazz.getDeclaredFields();
 
         for (Field field : fields) {
             if (fieldName.equals(field.getName())) {
@@ -1014,7 +837,7 @@ public class VOGenerator {
         return isPresent;
     }
 
-    private String getLengthTypeOracle(String oracleType) {
+    private static String getLengthTypeOracle(String oracleType) {
 
         String regex = ".*\\((\\d+)\\).*";
 
@@ -1028,18 +851,18 @@ public class VOGenerator {
         return oracleType;
     }
 
-    private String replaceOracleTypeWithoutLength(String oracleType) {
-
-        if (oracleType.contains("(")) {
-            int indexOpenTonda = oracleType.indexOf("(");
-            oracleType = oracleType.substring(0, indexOpenTonda);
-        }
+    private static Connection getConnection(Class<?> clazz) throws SQLException {
 
-        return oracleType;
+        return DataSourceRegistry.getInstance().getConnection(clazz, false);
     }
 
-    private Connection getConnection() throws SQLException {
+    private static String getFingerprintKey(Class<?> clazz) {
+
+        DataSourceRegistry registry = DataSourceRegistry.getInstance();
+        String dataSource = registry.route(clazz, false);
+        Properties properties = registry.getProperties();
 
-        return DriverManager.getConnection("", "", "");
+        return SchemaFingerprints.key(properties.getProperty("jdbcUrl" + dataSource),
+                properties.getProperty("jdbcLogin" + dataSource), getTableName(clazz));
     }
 }